@@ -0,0 +1,92 @@
+package io.github.pigaut.sql;
+
+public interface BulkInsert {
+
+    /**
+     * Gets the number of rows sent in each multi-row INSERT statement.
+     *
+     * @return the rows per statement
+     */
+    int getRowsPerStatement();
+
+    /**
+     * Sets a value of the current row as NULL.
+     *
+     * @return this BulkInsert object
+     */
+    BulkInsert withNullParameter();
+
+    /**
+     * Sets a value of the current row with a specified object.
+     *
+     * @param object the object to set as the value
+     * @return this BulkInsert object
+     */
+    BulkInsert withParameter(Object object);
+
+    /**
+     * Sets a value of the current row as a string value.
+     *
+     * @param value the string value
+     * @return this BulkInsert object
+     */
+    BulkInsert withParameter(String value);
+
+    /**
+     * Sets a value of the current row as a boolean value.
+     *
+     * @param value the boolean value
+     * @return this BulkInsert object
+     */
+    BulkInsert withParameter(boolean value);
+
+    /**
+     * Sets a value of the current row as an integer value.
+     *
+     * @param value the integer value
+     * @return this BulkInsert object
+     */
+    BulkInsert withParameter(int value);
+
+    /**
+     * Sets a value of the current row as a long value.
+     *
+     * @param value the long value
+     * @return this BulkInsert object
+     */
+    BulkInsert withParameter(long value);
+
+    /**
+     * Sets a value of the current row as a double value.
+     *
+     * @param value the double value
+     * @return this BulkInsert object
+     */
+    BulkInsert withParameter(double value);
+
+    /**
+     * Ends the current row, inserting the buffered rows once a full statement worth of rows is reached.
+     * If that insert fails its rows are dropped along with the exception, they are not sent again.
+     *
+     * @return this BulkInsert object
+     * @throws IllegalStateException if the row does not have one value per column, the row is discarded then
+     */
+    BulkInsert addRow();
+
+    /**
+     * Adds a row with the given values, in the order of the insert columns.
+     *
+     * @param values the values of the row
+     * @return this BulkInsert object
+     * @throws IllegalArgumentException if the number of values does not match the insert columns, nothing is buffered then
+     */
+    BulkInsert addRow(Object... values);
+
+    /**
+     * Inserts the remaining buffered rows. If the insert fails the rows are dropped, calling it again does not resend them.
+     *
+     * @return the total number of rows inserted by this bulk insert
+     */
+    long execute();
+
+}
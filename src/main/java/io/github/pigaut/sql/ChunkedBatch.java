@@ -0,0 +1,149 @@
+package io.github.pigaut.sql;
+
+import java.io.*;
+
+public interface ChunkedBatch extends AutoCloseable {
+
+    /**
+     * Sets a parameter of the current row as NULL.
+     *
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withNullParameter();
+
+    /**
+     * Sets a parameter of the current row with a specified object.
+     *
+     * @param object the object to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(Object object);
+
+    /**
+     * Sets a parameter of the current row with a specified object and SQL type.
+     *
+     * @param object  the object to set as the parameter
+     * @param sqlType the SQL type of the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(Object object, int sqlType);
+
+    /**
+     * Sets a parameter of the current row as a boolean value.
+     *
+     * @param value the boolean value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(boolean value);
+
+    /**
+     * Sets a parameter of the current row as a String value.
+     *
+     * @param value the String value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(String value);
+
+    /**
+     * Sets a parameter of the current row as an int value.
+     *
+     * @param value the int value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(int value);
+
+    /**
+     * Sets a parameter of the current row as a long value.
+     *
+     * @param value the long value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(long value);
+
+    /**
+     * Sets a parameter of the current row as a short value.
+     *
+     * @param value the short value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(short value);
+
+    /**
+     * Sets a parameter of the current row as a byte value.
+     *
+     * @param value the byte value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(byte value);
+
+    /**
+     * Sets a parameter of the current row as a float value.
+     *
+     * @param value the float value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(float value);
+
+    /**
+     * Sets a parameter of the current row as a double value.
+     *
+     * @param value the double value to set as the parameter
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch withParameter(double value);
+
+    ChunkedBatch withParameter(InputStream inputStream);
+
+    /**
+     * Adds the current row to the batch, sending the pending rows to the driver
+     * once the chunk row or byte limit is reached.
+     *
+     * @return this ChunkedBatch object
+     */
+    ChunkedBatch addBatch();
+
+    /**
+     * Sends the pending rows to the driver as one chunk.
+     */
+    void flush();
+
+    /**
+     * Gets the number of rows added to this batch so far.
+     *
+     * @return the number of rows
+     */
+    long getRowCount();
+
+    /**
+     * Gets the sum of the update counts of every chunk flushed so far.
+     *
+     * @return the aggregated update count, or {@link java.sql.Statement#SUCCESS_NO_INFO} if the driver did not report it for some row.
+     */
+    long getUpdateCount();
+
+    /**
+     * Flushes the remaining rows, commits and releases the connection.
+     *
+     * @return the sum of the update counts of every chunk, or {@link java.sql.Statement#SUCCESS_NO_INFO} if the driver did not report it for some row.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * try (ChunkedBatch batch = playersTable.insertInto("id", "name").openBatch(1000)) {
+     *     for (Player player : players) {
+     *         batch.withParameter(player.getId()).withParameter(player.getName()).addBatch();
+     *     }
+     *     batch.execute();
+     * }
+     * }
+     * </pre>
+     */
+    long execute();
+
+    /**
+     * Releases the connection, rows that were not committed by {@link #execute()} are rolled back.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,43 @@
+package io.github.pigaut.sql;
+
+public interface CounterAggregator extends AutoCloseable {
+
+    /**
+     * Adds a delta to a counter column of the row with the given key, applied to the database by a later flush.
+     *
+     * @param key    the value of the key column of the row.
+     * @param column the counter column.
+     * @param delta  the amount to add, may be negative.
+     */
+    void increment(Object key, String column, long delta);
+
+    /**
+     * Adds one to a counter column of the row with the given key.
+     *
+     * @param key    the value of the key column of the row.
+     * @param column the counter column.
+     */
+    void increment(Object key, String column);
+
+    /**
+     * Gets the net delta of a counter that has not been flushed yet.
+     *
+     * @param key    the value of the key column of the row.
+     * @param column the counter column.
+     * @return the pending delta.
+     */
+    long getPending(Object key, String column);
+
+    /**
+     * Applies every pending delta as batched incremental UPDATE statements in one transaction.
+     * If the transaction fails the deltas are kept and retried by the next flush.
+     */
+    void flush();
+
+    /**
+     * Stops the periodic flush and applies the remaining deltas.
+     */
+    @Override
+    void close();
+
+}
@@ -1,5 +1,10 @@
 package io.github.pigaut.sql;
 
+import io.github.pigaut.sql.database.statement.*;
+import io.github.pigaut.sql.database.table.*;
+
+import java.util.*;
+
 public interface DataTable {
 
     /**
@@ -150,6 +155,269 @@ public interface DataTable {
      */
     DatabaseStatement insertInto(String... columns);
 
+    /**
+     * Creates a bulk insert into the specified columns that sends many rows per statement,
+     * with the rows per statement chosen to stay under the parameter limits of the driver.
+     *
+     * @param columns the columns to insert into.
+     * @return a new BulkInsert object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * dataTable.bulkInsertInto("id", "name").addRow(1, "John").addRow(2, "Jane").execute();
+     * // SQL: "INSERT INTO table_name (id, name) VALUES (?, ?), (?, ?);"
+     * }
+     * </pre>
+     */
+    BulkInsert bulkInsertInto(String... columns);
+
+    /**
+     * Creates a bulk insert into the specified columns with a fixed number of rows per statement.
+     *
+     * @param rowsPerStatement the maximum number of rows in each INSERT statement.
+     * @param columns          the columns to insert into.
+     * @return a new BulkInsert object.
+     */
+    BulkInsert bulkInsertInto(int rowsPerStatement, String... columns);
+
+    /**
+     * Creates a write-behind writer that queues rows in memory and inserts them in batches of 500 rows,
+     * one transaction per batch, every second or as soon as a batch is full. Rows left in the queue are flushed
+     * when the database connection is closed.
+     *
+     * @param columns the columns to insert into.
+     * @return a new WriteBehindWriter object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * WriteBehindWriter events = dataTable.writeBehind("player_id", "event");
+     * events.write(1, "join");
+     * // SQL: "INSERT INTO table_name (player_id, event) VALUES (?, ?);" executed as a batch
+     * }
+     * </pre>
+     */
+    WriteBehindWriter writeBehind(String... columns);
+
+    /**
+     * Creates a write-behind writer with the specified batching and backpressure settings.
+     *
+     * @param batchRows           the number of rows that triggers a flush and the maximum rows per transaction.
+     * @param flushIntervalMillis the time between periodic flushes.
+     * @param capacity            the maximum number of queued rows.
+     * @param policy              what to do when a row is written to a full queue.
+     * @param columns             the columns to insert into.
+     * @return a new WriteBehindWriter object.
+     */
+    WriteBehindWriter writeBehind(int batchRows, long flushIntervalMillis, int capacity, BackpressurePolicy policy, String... columns);
+
+    /**
+     * Creates a counter aggregator that sums increments in memory and applies the net delta of each
+     * counter every second as batched incremental updates. Only rows that already exist are updated, deltas of missing rows are logged and dropped.
+     *
+     * @param keyColumn the column identifying the rows.
+     * @return a new CounterAggregator object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * CounterAggregator counters = dataTable.counters("id");
+     * counters.increment(1, "coins", 50);
+     * // SQL: "UPDATE table_name SET coins = coins + ? WHERE id = ?" executed as a batch
+     * }
+     * </pre>
+     */
+    CounterAggregator counters(String keyColumn);
+
+    /**
+     * Creates a counter aggregator that applies the net deltas at the specified interval.
+     *
+     * @param keyColumn           the column identifying the rows.
+     * @param flushIntervalMillis the time between periodic flushes.
+     * @return a new CounterAggregator object.
+     */
+    CounterAggregator counters(String keyColumn, long flushIntervalMillis);
+
+    /**
+     * Creates a cache of entities keyed by primary key. Entities are loaded with the mapper on first access,
+     * modified in memory, and dirty entities are written every 5 seconds as batched updates, inserting the rows
+     * that do not exist yet. Entities not accessed for 30 minutes are evicted once saved.
+     *
+     * @param keyColumn the primary key column.
+     * @param mapper    maps a full row of the table to an entity.
+     * @param writer    gets the values of the columns to persist from an entity.
+     * @param columns   the columns to persist, excluding the key column.
+     * @return a new EntityCache object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * EntityCache<UUID, Player> players = dataTable.entityCache("uuid", Player::fromRow,
+     *         player -> new Object[] {player.getName(), player.getCoins()}, "name", "coins");
+     * players.modify(uuid, player -> player.addCoins(50));
+     * players.unload(uuid);
+     * // SQL: "UPDATE table_name SET name = ?, coins = ? WHERE uuid = ?;"
+     * }
+     * </pre>
+     */
+    <K, V> EntityCache<K, V> entityCache(String keyColumn, RowMapper<V> mapper, EntityWriter<V> writer, String... columns);
+
+    /**
+     * Creates a cache of entities keyed by primary key with the specified persistence settings.
+     *
+     * @param writeMode               whether entities are written on every change or in periodic batches.
+     * @param flushIntervalMillis     the time between periodic flushes and eviction checks.
+     * @param expireAfterAccessMillis the time after the last access when a saved entity is evicted.
+     * @param keyColumn               the primary key column.
+     * @param mapper                  maps a full row of the table to an entity.
+     * @param writer                  gets the values of the columns to persist from an entity.
+     * @param columns                 the columns to persist, excluding the key column.
+     * @return a new EntityCache object.
+     */
+    <K, V> EntityCache<K, V> entityCache(WriteMode writeMode, long flushIntervalMillis, long expireAfterAccessMillis,
+                                         String keyColumn, RowMapper<V> mapper, EntityWriter<V> writer, String... columns);
+
+    /**
+     * Creates a Bloom filter over a key column with a 1% false positive rate, built by scanning the column.
+     *
+     * @param keyColumn the column whose values are looked up.
+     * @return a new KeyFilter object.
+     * @see #keyFilter(String, double)
+     */
+    KeyFilter keyFilter(String keyColumn);
+
+    /**
+     * Creates a Bloom filter over a key column, built by scanning the column, so lookups of keys that do not
+     * exist return without borrowing a connection. Keys of rows inserted through this table object are added
+     * as they are written. Inserts whose keys cannot be read from their parameters make every key possible
+     * until a background rebuild completes, and the filter rebuilds itself larger once it fills up.
+     * Updates that change key values are not followed, call {@link KeyFilter#rebuild()} after them.
+     * Keys are matched loosely, numbers by value and text ignoring case, accents and trailing spaces, so the
+     * filter never rules out a key the database would match. Key columns that are not text, numeric, UUID or
+     * binary cannot be matched outside the database and every lookup queries it.
+     *
+     * @param keyColumn         the column whose values are looked up.
+     * @param falsePositiveRate the chance of querying the database for a key that does not exist.
+     * @return a new KeyFilter object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * KeyFilter joined = dataTable.keyFilter("uuid", 0.001);
+     * if (!joined.exists(uuid)) {
+     *     // first join, no query was needed
+     * }
+     * }
+     * </pre>
+     */
+    KeyFilter keyFilter(String keyColumn, double falsePositiveRate);
+
+    /**
+     * Creates a scan of the whole table split into ranges of a key column, read in parallel on pooled connections.
+     * Meant for jobs that read every row, such as recalculations and exports. The key column should be indexed,
+     * ideally the primary key. Rows written while the scan runs may or may not be seen.
+     *
+     * @param keyColumn the column the table is split by.
+     * @return a new ParallelScan object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * dataTable.parallelScan("id").parallelism(4).forEach(RowMapper.ofRecord(Player.class), exporter::write);
+     * }
+     * </pre>
+     */
+    ParallelScan parallelScan(String keyColumn);
+
+    /**
+     * Creates a cursor reading the table in pages ordered by a key, remembering the key of the last row instead
+     * of skipping rows with an offset, so later pages cost the same as the first. The key columns should be
+     * unique together and not null, such as the primary key, and should be indexed in this order.
+     * The SQL of both page shapes is generated once per cursor.
+     *
+     * @param mapper     the RowMapper that converts each row, every column is selected.
+     * @param pageSize   the maximum number of rows per page.
+     * @param keyColumns the columns the pages are ordered by.
+     * @return a new PageCursor object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * PageCursor<Player> pages = dataTable.paginate(RowMapper.ofRecord(Player.class), 500, "server", "uuid");
+     * while (pages.hasNext()) {
+     *     exporter.write(pages.next());
+     * }
+     * // SQL after the first page: "SELECT * FROM table_name WHERE server >= ? AND (server > ? OR uuid > ?) ORDER BY server, uuid LIMIT ?;"
+     * }
+     * </pre>
+     */
+    <T> PageCursor<T> paginate(RowMapper<T> mapper, int pageSize, String... keyColumns);
+
+    /**
+     * Enables caching of query results for the select statements of this table, replacing any previous cache.
+     * Results of {@link DatabaseStatement#fetchAll(RowMapper)} and {@link DatabaseStatement#fetchOne(RowMapper)}
+     * are kept until they expire or until a write is made through this table object, which empties the cache.
+     * A cached result is only found again when the same mapper instance is used, so keep mappers in constants.
+     * Writes made through other table objects or raw SQL are not seen, the time to live bounds their staleness.
+     *
+     * @param ttlMillis  the time a cached result stays valid.
+     * @param maxEntries the maximum number of cached results, least recently used results are evicted first.
+     * @return the new QueryCache, to inspect its hit ratio.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * dataTable.enableQueryCache(5000, 1000);
+     * Optional<String> name = dataTable.select("WHERE id = ?", "name").withParameter(1).fetchOne(NAME_MAPPER);
+     * }
+     * </pre>
+     */
+    QueryCache enableQueryCache(long ttlMillis, int maxEntries);
+
+    /**
+     * Gets the query cache of this table.
+     *
+     * @return the QueryCache, or null if caching is not enabled.
+     */
+    QueryCache getQueryCache();
+
+    /**
+     * Adds a task that runs after every write made through this table.
+     * Writes inside a transaction also run the task once the transaction commits.
+     *
+     * @param listener the task to run.
+     */
+    void addWriteListener(Runnable listener);
+
+    /**
+     * Removes a task added with {@link #addWriteListener(Runnable)}.
+     *
+     * @param listener the task to remove.
+     */
+    void removeWriteListener(Runnable listener);
+
+    /**
+     * Loads every row of the table into memory, to serve lookups of small read-mostly tables without
+     * querying the database. The mirror is reloaded in the background shortly after writes made through this
+     * table object, with bursts of writes coalesced into one reload, and writes made any other way are only seen
+     * after {@link TableMirror#reload()}. Call {@link TableMirror#refresh()} to read your own writes right away.
+     *
+     * @param mapper maps each row of the table.
+     * @return a new TableMirror object.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * TableMirror<Region> regions = dataTable.mirror(RowMapper.ofRecord(Region.class))
+     *         .addHashIndex("name", Region::name)
+     *         .addSortedIndex("priority", Region::priority);
+     * List<Region> important = regions.getRange("priority", 10, 100);
+     * }
+     * </pre>
+     */
+    <T> TableMirror<T> mirror(RowMapper<T> mapper);
+
     /**
      * Creates an insert DatabaseStatement with the specified values.
      *
@@ -215,6 +483,37 @@ public interface DataTable {
      */
     DatabaseStatement set(String clause);
 
+    /**
+     * Saves a tracked row, updating only the columns changed since it was loaded.
+     * The row is found by the saved value of the key column, so the key itself may be changed.
+     *
+     * @param keyColumn the column identifying the row.
+     * @param row       the row to save.
+     * @return the number of updated rows, or {@link java.sql.Statement#SUCCESS_NO_INFO} if the driver did not report it.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * row.set("coins", 100L);
+     * dataTable.update("id", row);
+     * // SQL: "UPDATE table_name SET coins = ? WHERE id = ?;"
+     * }
+     * </pre>
+     */
+    long update(String keyColumn, TrackedRow row);
+
+    /**
+     * Saves tracked rows in one transaction, updating only the changed columns of each row.
+     * Rows with the same changed columns share one cached statement executed as a batch,
+     * and rows without changes are skipped. Every saved row is marked clean afterwards, or once the
+     * transaction commits when this table belongs to a transaction, so rows rolled back stay changed.
+     *
+     * @param keyColumn the column identifying the rows, matched by its saved value.
+     * @param rows      the rows to save.
+     * @return the number of updated rows, or {@link java.sql.Statement#SUCCESS_NO_INFO} if the driver did not report it.
+     */
+    long update(String keyColumn, Collection<TrackedRow> rows);
+
     /**
      * Creates a delete DatabaseStatement with the specified clause.
      *
@@ -1,8 +1,12 @@
 package io.github.pigaut.sql;
 
 import io.github.pigaut.sql.database.statement.*;
+import io.github.pigaut.sql.database.transaction.*;
 
 import javax.sql.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 public interface Database {
 
@@ -20,6 +24,85 @@ public interface Database {
      */
     DataSource getDataSource();
 
+    /**
+     * Retrieves the executor used to run asynchronous statements.
+     *
+     * @return The Executor used by the async methods of this database and its statements.
+     */
+    Executor getExecutor();
+
+    /**
+     * Sets the executor used to run asynchronous statements.
+     *
+     * @param executor The Executor to use for async execution.
+     */
+    void setExecutor(Executor executor);
+
+    /**
+     * Retrieves the scheduler used for periodic background work of this database, such as flushing buffered writes.
+     * The scheduler is shut down when the connection is closed.
+     *
+     * @return The ScheduledExecutorService of this database.
+     */
+    ScheduledExecutorService getScheduler();
+
+    /**
+     * Registers a task to run when {@link #closeConnection()} is called, before the connections are closed.
+     *
+     * @param hook The task to run, for example flushing buffered writes.
+     * @return A task that unregisters the hook, to run when the owner of the hook is closed before this database.
+     */
+    Runnable addCloseHook(Runnable hook);
+
+    /**
+     * Borrows a connection used to execute statements of this database.
+     * Every connection obtained this way must be given back with {@link #releaseConnection(Connection)}.
+     *
+     * @return A connection to the database.
+     * @throws SQLException if a connection could not be obtained.
+     */
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Borrows a connection used to execute queries that only read data, which may be served by a replica.
+     * Every connection obtained this way must be given back with {@link #releaseConnection(Connection)}.
+     *
+     * @return A connection to the database or one of its replicas.
+     * @throws SQLException if a connection could not be obtained.
+     */
+    Connection getReadConnection() throws SQLException;
+
+    /**
+     * Gives back a connection obtained from {@link #getConnection()} or {@link #getReadConnection()}.
+     *
+     * @param connection The connection to release.
+     * @throws SQLException if the connection could not be released.
+     */
+    void releaseConnection(Connection connection) throws SQLException;
+
+    /**
+     * Retrieves the cache of prepared statements kept for each pooled connection of this database.
+     *
+     * @return The StatementCache used by statements of this database.
+     */
+    StatementCache getStatementCache();
+
+    /**
+     * Retrieves the coalescer that lets identical concurrent reads of this database share one execution.
+     * Coalescing applies to {@link DatabaseStatement#fetchAll} and {@link DatabaseStatement#fetchOne} outside
+     * transactions, and is disabled until enabled with {@link ReadCoalescer#setEnabled(boolean)}.
+     *
+     * @return The ReadCoalescer used by statements of this database.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * database.getReadCoalescer().setEnabled(true);
+     * }
+     * </pre>
+     */
+    ReadCoalescer getReadCoalescer();
+
     /**
      * Creates a DataTable with the specified table name (may not exist in the database).
      *
@@ -36,6 +119,23 @@ public interface Database {
      */
     DatabaseStatement createStatement(String sql);
 
+    /**
+     * Creates a statement for this database from a template with named placeholders.
+     *
+     * @param template the compiled template
+     * @param values   the value of each placeholder by name
+     * @return a new DatabaseStatement with the rendered sql
+     */
+    DatabaseStatement createStatement(PlaceholderTemplate template, Map<String, String> values);
+
+    /**
+     * Compiles the given sql into an immutable query that can be shared between threads and bound repeatedly.
+     *
+     * @param sql the sql statement
+     * @return a new PreparedQuery
+     */
+    PreparedQuery prepareQuery(String sql);
+
     /**
      * Executes a SQL statement against the database.
      *
@@ -67,6 +167,87 @@ public interface Database {
      */
     void executeQuery(String sql, QueryReader reader);
 
+    /**
+     * Executes a SQL statement asynchronously on the database executor.
+     *
+     * @param sql The SQL statement to execute.
+     * @return A future completed once the statement has been executed.
+     */
+    CompletableFuture<Void> executeAsync(String sql);
+
+    /**
+     * Executes an SQL statement that may modify the database asynchronously.
+     *
+     * @param sql The SQL statement to execute.
+     * @return A future completed with the number of rows affected by the statement.
+     */
+    CompletableFuture<Integer> executeUpdateAsync(String sql);
+
+    /**
+     * Executes a large update SQL statement asynchronously.
+     *
+     * @param sql The SQL statement to execute.
+     * @return A future completed with the number of rows affected by the statement.
+     */
+    CompletableFuture<Long> executeLargeUpdateAsync(String sql);
+
+    /**
+     * Executes an SQL query asynchronously and processes the results using a QueryReader.
+     *
+     * @param sql    The SQL query to execute.
+     * @param reader The QueryReader implementation to process the query results.
+     * @return A future completed once the reader has finished.
+     */
+    CompletableFuture<Void> executeQueryAsync(String sql, QueryReader reader);
+
+    /**
+     * Runs the given action in a transaction bound to a single connection.
+     * Statements created through the transaction run on that connection and are committed once the action returns,
+     * or rolled back if it throws.
+     *
+     * @param action The work to run inside the transaction.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * database.inTransaction(tx -> {
+     *     DataTable players = tx.tableOf("players");
+     *     players.set("coins = coins - ? WHERE id = ?").withParameter(100).withParameter(1).executeUpdate();
+     *     players.set("coins = coins + ? WHERE id = ?").withParameter(100).withParameter(2).executeUpdate();
+     * });
+     * }
+     * </pre>
+     */
+    void inTransaction(TransactionAction action);
+
+    /**
+     * Runs the given action in a transaction with the specified isolation level.
+     *
+     * @param isolationLevel One of the {@link Connection} TRANSACTION_* isolation levels.
+     * @param action         The work to run inside the transaction.
+     */
+    void inTransaction(int isolationLevel, TransactionAction action);
+
+    /**
+     * Runs the given action in a transaction asynchronously on the database executor.
+     *
+     * @param action The work to run inside the transaction.
+     * @return A future completed once the transaction has been committed.
+     */
+    CompletableFuture<Void> inTransactionAsync(TransactionAction action);
+
+    /**
+     * Runs the given action in a transaction with the specified isolation level asynchronously.
+     *
+     * @param isolationLevel One of the {@link Connection} TRANSACTION_* isolation levels.
+     * @param action         The work to run inside the transaction.
+     * @return A future completed once the transaction has been committed.
+     */
+    CompletableFuture<Void> inTransactionAsync(int isolationLevel, TransactionAction action);
+
+    /**
+     * Runs the registered close hooks, then closes every connection of this database.
+     */
     void closeConnection();
 
 }
@@ -0,0 +1,273 @@
+package io.github.pigaut.sql;
+
+import com.zaxxer.hikari.*;
+import io.github.pigaut.sql.database.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Connection settings of a database, built from a {@link WorkloadProfile} with optional overrides.
+ *
+ * <pre>
+ * {@code
+ * Database database = SQLib.createDatabase(DatabaseConfig.h2(new File("data/players"))
+ *         .profile(WorkloadProfile.OLTP)
+ *         .poolSize(8)
+ *         .build());
+ * }
+ * </pre>
+ */
+public final class DatabaseConfig {
+
+    private final String name;
+    private final boolean h2;
+    private final String location;
+    private final String username;
+    private final String password;
+    private final WorkloadProfile profile;
+    private final int poolSize;
+    private final int minimumIdle;
+    private final long connectionTimeoutMillis;
+    private final int statementCacheSize;
+    private final Map<String, String> driverProperties;
+    private final Executor executor;
+
+    private DatabaseConfig(Builder builder) {
+        this.name = builder.name;
+        this.h2 = builder.h2;
+        this.location = builder.location;
+        this.username = builder.username;
+        this.password = builder.password;
+        this.profile = builder.profile;
+        this.poolSize = builder.poolSize != null ? builder.poolSize : profile.getPoolSize();
+        this.minimumIdle = Math.min(poolSize, builder.minimumIdle != null ? builder.minimumIdle : profile.getMinimumIdle());
+        this.connectionTimeoutMillis = builder.connectionTimeoutMillis;
+        this.statementCacheSize = builder.statementCacheSize != null ? builder.statementCacheSize : profile.getStatementCacheSize();
+        Map<String, String> properties = new LinkedHashMap<>(h2 ? profile.getH2Settings() : profile.getMysqlProperties());
+        properties.putAll(builder.properties);
+        this.driverProperties = Collections.unmodifiableMap(properties);
+        this.executor = builder.executor;
+    }
+
+    /**
+     * Starts the configuration of an embedded H2 database stored in the given file.
+     *
+     * @param file the database file, with or without extension.
+     * @return a new Builder named after the file.
+     */
+    public static Builder h2(File file) {
+        String fileName = file.getName();
+        int extension = fileName.lastIndexOf('.');
+        return new Builder(extension == -1 ? fileName : fileName.substring(0, extension), true, "file:" + file.getAbsolutePath(), null, null);
+    }
+
+    /**
+     * Starts the configuration of an in-memory H2 database, kept until the database is closed.
+     * Useful as a stand-in for a MySQL server or replica in tests.
+     *
+     * @param name the name of the database, databases with the same name share their data.
+     * @return a new Builder.
+     */
+    public static Builder h2InMemory(String name) {
+        return new Builder(name, true, "mem:" + name + ";DB_CLOSE_DELAY=-1", null, null);
+    }
+
+    /**
+     * Starts the configuration of a MySQL database.
+     *
+     * @param database the name of the database.
+     * @param host     the address of the database server.
+     * @param port     the port number of the database server.
+     * @param username the username for authentication.
+     * @param password the password for authentication.
+     * @return a new Builder named after the database.
+     */
+    public static Builder mysql(String database, String host, String port, String username, String password) {
+        return new Builder(database, false, String.format("%s:%s/%s", host, port, database), username, password);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public WorkloadProfile getProfile() {
+        return profile;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    /**
+     * Gets the maximum time to wait for a pooled connection.
+     *
+     * @return the timeout in milliseconds, or 0 if the pool default is used.
+     */
+    public long getConnectionTimeout() {
+        return connectionTimeoutMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Gets the driver properties applied, the profile properties followed by the overrides.
+     * For H2 they are database settings appended to the URL.
+     */
+    public Map<String, String> getDriverProperties() {
+        return driverProperties;
+    }
+
+    /**
+     * Gets the executor for asynchronous statements.
+     *
+     * @return the executor, or null to use the default executor.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Creates a connection pool with these settings. Connections are validated with the JDBC4
+     * {@code isValid} check instead of a test query.
+     *
+     * @return a new HikariDataSource.
+     */
+    public HikariDataSource createDataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("SQLib-" + name);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(minimumIdle);
+        if (connectionTimeoutMillis > 0) {
+            config.setConnectionTimeout(connectionTimeoutMillis);
+        }
+        if (h2) {
+            StringBuilder url = new StringBuilder("jdbc:h2:").append(location)
+                    .append(";TRACE_LEVEL_FILE=0;DB_CLOSE_ON_EXIT=FALSE");
+            driverProperties.forEach((setting, value) -> url.append(';').append(setting).append('=').append(value));
+            config.setDataSourceClassName("org.h2.jdbcx.JdbcDataSource");
+            config.addDataSourceProperty("URL", url.toString());
+        } else {
+            config.setJdbcUrl("jdbc:mysql://" + location);
+            config.setUsername(username);
+            config.setPassword(password);
+            driverProperties.forEach(config::addDataSourceProperty);
+        }
+        return new HikariDataSource(config);
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseConfig{name=" + name +
+                ", driver=" + (h2 ? "H2" : "MySQL") +
+                ", profile=" + profile +
+                ", poolSize=" + poolSize +
+                ", minimumIdle=" + minimumIdle +
+                ", statementCacheSize=" + statementCacheSize +
+                ", driverProperties=" + driverProperties + "}";
+    }
+
+    public static final class Builder {
+
+        private String name;
+        private final boolean h2;
+        private final String location;
+        private final String username;
+        private final String password;
+        private WorkloadProfile profile = WorkloadProfile.DEFAULT;
+        private Integer poolSize;
+        private Integer minimumIdle;
+        private long connectionTimeoutMillis = 0;
+        private Integer statementCacheSize;
+        private final Map<String, String> properties = new LinkedHashMap<>();
+        private Executor executor;
+
+        private Builder(String name, boolean h2, String location, String username, String password) {
+            this.name = name;
+            this.h2 = h2;
+            this.location = location;
+            this.username = username;
+            this.password = password;
+        }
+
+        /**
+         * Sets the name of the database.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Sets the workload profile whose settings are applied, {@link WorkloadProfile#DEFAULT} by default.
+         */
+        public Builder profile(WorkloadProfile profile) {
+            this.profile = Objects.requireNonNull(profile);
+            return this;
+        }
+
+        /**
+         * Overrides the maximum number of pooled connections of the profile.
+         */
+        public Builder poolSize(int poolSize) {
+            if (poolSize <= 0) {
+                throw new IllegalArgumentException("Pool size must be positive");
+            }
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Overrides the minimum number of idle pooled connections of the profile.
+         */
+        public Builder minimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time to wait for a pooled connection.
+         */
+        public Builder connectionTimeout(long connectionTimeoutMillis) {
+            this.connectionTimeoutMillis = connectionTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Overrides the number of prepared statements cached for each connection of the profile, 0 disables caching.
+         */
+        public Builder statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets a driver property, or an H2 database setting, overriding the profile.
+         */
+        public Builder property(String key, Object value) {
+            properties.put(key, String.valueOf(value));
+            return this;
+        }
+
+        /**
+         * Sets the executor for asynchronous statements instead of the default executor.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public DatabaseConfig build() {
+            return new DatabaseConfig(this);
+        }
+
+    }
+
+}
@@ -3,11 +3,31 @@ package io.github.pigaut.sql;
 import io.github.pigaut.sql.database.statement.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
 
 public interface DatabaseStatement {
 
     /**
-     * Replaces a placeholder in the SQL statement with a specific value.
+     * Gets the SQL of this statement.
+     *
+     * @return the SQL string
+     */
+    String getSql();
+
+    /**
+     * Compiles the SQL of this statement into an immutable query that can be shared and bound repeatedly.
+     * Options and parameters already added to this statement are not part of the compiled query.
+     * Writes through a query compiled from a DataTable statement still notify the table, refreshing its caches.
+     *
+     * @return a new PreparedQuery with the SQL of this statement
+     */
+    PreparedQuery compile();
+
+    /**
+     * Replaces every occurrence of a placeholder in the SQL statement with a specific value.
+     * The placeholder is matched literally, use a {@link PlaceholderTemplate} for SQL that is rendered repeatedly.
      *
      * @param placeholder the placeholder to replace
      * @param value the value to replace with
@@ -35,6 +55,31 @@ public interface DatabaseStatement {
      */
     DatabaseStatement addBatch();
 
+    /**
+     * Sets the number of rows the driver fetches from the database at a time when reading query results.
+     *
+     * @param fetchSize the number of rows per fetch, 0 to use the driver default
+     * @return the updated SimpleDatabaseStatement object
+     */
+    DatabaseStatement withFetchSize(int fetchSize);
+
+    /**
+     * Asks the driver to stream query results row by row instead of loading the whole result into memory,
+     * enabling the streaming mode of the MySQL driver. Has no effect on drivers that already read results lazily.
+     *
+     * @return the updated SimpleDatabaseStatement object
+     */
+    DatabaseStatement withStreamingResults();
+
+    /**
+     * Caches the results of {@link #fetchAll(RowMapper)} and {@link #fetchOne(RowMapper)} in the given cache,
+     * keyed by the SQL, the bound parameters and the mapper instance. Statements run inside a transaction bypass the cache.
+     *
+     * @param cache the cache to read and store results in
+     * @return the updated SimpleDatabaseStatement object
+     */
+    DatabaseStatement withCache(QueryCache cache);
+
     /**
      * Sets a parameter in the statement as NULL.
      *
@@ -167,6 +212,110 @@ public interface DatabaseStatement {
      */
     void fetchAllRows(QueryReader reader);
 
+    /**
+     * Fetches all rows from the result set, converting each with a RowMapper.
+     *
+     * @param mapper the RowMapper that converts each row
+     * @param <T> the type of the mapped rows
+     * @return a list with every mapped row
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * record Player(int id, String name, int coins) {}
+     * List<Player> players = playersTable.selectAll().fetchAll(RowMapper.ofRecord(Player.class));
+     * }
+     * </pre>
+     */
+    <T> List<T> fetchAll(RowMapper<T> mapper);
+
+    /**
+     * Fetches the first row from the result set, converting it with a RowMapper.
+     *
+     * @param mapper the RowMapper that converts the row
+     * @param <T> the type of the mapped row
+     * @return the mapped first row, or an empty optional if there are no rows
+     */
+    <T> Optional<T> fetchOne(RowMapper<T> mapper);
+
+    /**
+     * Fetches all rows from the result set into a map, keeping the order of the rows.
+     *
+     * @param keyMapper   the RowMapper that converts each row to its key
+     * @param valueMapper the RowMapper that converts each row to its value
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return a map with an entry for every row, later rows replace earlier rows with the same key
+     */
+    <K, V> Map<K, V> fetchMap(RowMapper<K> keyMapper, RowMapper<V> valueMapper);
+
+    /**
+     * Fetches a numeric column of every row into an int array without boxing, NULL values are read as 0.
+     *
+     * @param column the index of the column, starting at 1
+     * @return the values of the column in row order
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * int[] coins = playersTable.selectAll("coins").fetchIntColumn(1);
+     * }
+     * </pre>
+     */
+    int[] fetchIntColumn(int column);
+
+    /**
+     * Fetches a numeric column of every row into a long array without boxing, NULL values are read as 0.
+     *
+     * @param column the index of the column, starting at 1
+     * @return the values of the column in row order
+     */
+    long[] fetchLongColumn(int column);
+
+    /**
+     * Fetches a numeric column of every row into a double array without boxing, NULL values are read as 0.
+     *
+     * @param column the index of the column, starting at 1
+     * @return the values of the column in row order
+     */
+    double[] fetchDoubleColumn(int column);
+
+    /**
+     * Fetches several numeric columns of every row into primitive arrays, one per column.
+     *
+     * @param types the type of each selected column, in select order
+     * @return the columnar result
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * ColumnarResult result = playersTable.selectAll("id", "coins").fetchColumns(ColumnType.INT, ColumnType.LONG);
+     * int[] ids = result.getInts(1);
+     * long[] coins = result.getLongs(2);
+     * }
+     * </pre>
+     */
+    ColumnarResult fetchColumns(ColumnType... types);
+
+    /**
+     * Executes a query SQL statement and returns a lazily populated stream of mapped rows.
+     * The stream holds a connection until it is exhausted or closed, so it should be used in a try-with-resources block.
+     *
+     * @param mapper the RowMapper that converts each row
+     * @param <T> the type of the mapped rows
+     * @return a sequential stream of the mapped rows
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * try (Stream<String> names = playersTable.selectAll("name").withStreamingResults().stream(results -> results.getString(1))) {
+     *     names.forEach(System.out::println);
+     * }
+     * }
+     * </pre>
+     */
+    <T> Stream<T> stream(RowMapper<T> mapper);
+
     /**
      * Executes a batch of SQL statements.
      *
@@ -181,4 +330,101 @@ public interface DatabaseStatement {
      */
     long[] executeLargeBatch();
 
-}
+    /**
+     * Opens a chunked batch for the SQL of this statement that sends rows to the driver every chunkRows rows
+     * and commits once at the end, so very large batches run in constant memory.
+     *
+     * @param chunkRows the number of rows sent to the driver at once
+     * @return a new ChunkedBatch holding a connection until it is closed
+     */
+    ChunkedBatch openBatch(int chunkRows);
+
+    /**
+     * Opens a chunked batch for the SQL of this statement.
+     *
+     * @param chunkRows  the maximum number of rows sent to the driver at once
+     * @param chunkBytes the approximate number of parameter bytes after which rows are sent, 0 for no limit
+     * @param commitMode whether to commit after every chunk or once at the end
+     * @return a new ChunkedBatch holding a connection until it is closed
+     */
+    ChunkedBatch openBatch(int chunkRows, long chunkBytes, BatchCommitMode commitMode);
+
+    /**
+     * Executes the SQL statement asynchronously on the database executor.
+     * The statement must not be modified until the returned future completes.
+     *
+     * @return a future completed with true if the first result is a ResultSet
+     */
+    CompletableFuture<Boolean> executeAsync();
+
+    /**
+     * Executes an update SQL statement asynchronously on the database executor.
+     *
+     * @return a future completed with the number of rows affected
+     */
+    CompletableFuture<Integer> executeUpdateAsync();
+
+    /**
+     * Executes a large update SQL statement asynchronously on the database executor.
+     *
+     * @return a future completed with the number of rows affected
+     */
+    CompletableFuture<Long> executeLargeUpdateAsync();
+
+    /**
+     * Executes a query SQL statement asynchronously and processes the results with a QueryReader.
+     *
+     * @param reader the QueryReader to process the query results
+     * @return a future completed once the reader has finished
+     */
+    CompletableFuture<Void> executeQueryAsync(QueryReader reader);
+
+    /**
+     * Fetches the first row from the result set asynchronously.
+     *
+     * @param reader the QueryReader to process the first row
+     * @return a future completed once the reader has finished
+     */
+    CompletableFuture<Void> fetchRowAsync(QueryReader reader);
+
+    /**
+     * Fetches all rows from the result set asynchronously.
+     *
+     * @param reader the QueryReader to process all rows
+     * @return a future completed once the reader has finished
+     */
+    CompletableFuture<Void> fetchAllRowsAsync(QueryReader reader);
+
+    /**
+     * Fetches all rows from the result set asynchronously, converting each with a RowMapper.
+     *
+     * @param mapper the RowMapper that converts each row
+     * @param <T> the type of the mapped rows
+     * @return a future completed with every mapped row
+     */
+    <T> CompletableFuture<List<T>> fetchAllAsync(RowMapper<T> mapper);
+
+    /**
+     * Fetches the first row from the result set asynchronously, converting it with a RowMapper.
+     *
+     * @param mapper the RowMapper that converts the row
+     * @param <T> the type of the mapped row
+     * @return a future completed with the mapped first row, or an empty optional if there are no rows
+     */
+    <T> CompletableFuture<Optional<T>> fetchOneAsync(RowMapper<T> mapper);
+
+    /**
+     * Executes a batch of SQL statements asynchronously.
+     *
+     * @return a future completed with the update counts of each command
+     */
+    CompletableFuture<int[]> executeBatchAsync();
+
+    /**
+     * Executes a large batch of SQL statements asynchronously.
+     *
+     * @return a future completed with the update counts of each command
+     */
+    CompletableFuture<long[]> executeLargeBatchAsync();
+
+}
\ No newline at end of file
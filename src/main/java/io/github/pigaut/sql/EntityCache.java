@@ -0,0 +1,103 @@
+package io.github.pigaut.sql;
+
+import java.util.*;
+import java.util.function.*;
+
+public interface EntityCache<K, V> extends AutoCloseable {
+
+    /**
+     * Gets the entity with the given key, loading it from the table if it is not cached.
+     *
+     * @param key the value of the key column.
+     * @return the entity, or empty if no row has the given key.
+     */
+    Optional<V> get(K key);
+
+    /**
+     * Gets the entity with the given key only if it is already cached.
+     *
+     * @param key the value of the key column.
+     * @return the cached entity, or empty if it is not loaded.
+     */
+    Optional<V> getIfCached(K key);
+
+    /**
+     * Caches an entity and marks it as dirty, creating its row on the next save if it does not exist.
+     *
+     * @param key    the value of the key column.
+     * @param entity the entity.
+     */
+    void put(K key, V entity);
+
+    /**
+     * Runs an action on the entity with the given key while holding its lock, then marks it as dirty.
+     * The entity is loaded first if it is not cached.
+     *
+     * @param key    the value of the key column.
+     * @param action the modification to apply.
+     * @return true if the entity exists and was modified.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * players.modify(uuid, player -> player.addCoins(50));
+     * }
+     * </pre>
+     */
+    boolean modify(K key, Consumer<V> action);
+
+    /**
+     * Marks a cached entity as dirty after it was modified outside {@link #modify(Object, Consumer)}.
+     *
+     * @param key the value of the key column.
+     */
+    void markDirty(K key);
+
+    /**
+     * Writes the entity with the given key now if it is dirty.
+     *
+     * @param key the value of the key column.
+     */
+    void save(K key);
+
+    /**
+     * Writes the entity with the given key if it is dirty and removes it from the cache.
+     *
+     * @param key the value of the key column.
+     */
+    void unload(K key);
+
+    /**
+     * Removes the entity with the given key from the cache and deletes its row.
+     *
+     * @param key the value of the key column.
+     */
+    void delete(K key);
+
+    /**
+     * Writes every dirty entity as batched statements in one transaction.
+     * If the transaction fails the entities stay dirty and are retried by the next flush.
+     */
+    void flush();
+
+    /**
+     * Gets the number of cached entities.
+     *
+     * @return the number of cached entities.
+     */
+    int size();
+
+    /**
+     * Gets the number of cached entities with changes not yet written.
+     *
+     * @return the number of dirty entities.
+     */
+    int getDirtyCount();
+
+    /**
+     * Stops the periodic flush and writes every dirty entity.
+     */
+    @Override
+    void close();
+
+}
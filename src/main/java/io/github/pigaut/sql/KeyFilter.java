@@ -0,0 +1,73 @@
+package io.github.pigaut.sql;
+
+import java.util.concurrent.*;
+
+public interface KeyFilter extends AutoCloseable {
+
+    /**
+     * Checks whether a row with the given key may exist, without querying the database.
+     *
+     * @param key the value of the key column.
+     * @return false if no row has the key, true if a row may have it or the filter is stale.
+     */
+    boolean mightExist(Object key);
+
+    /**
+     * Checks whether a row with the given key exists, only querying the database when the filter
+     * cannot rule the key out.
+     *
+     * @param key the value of the key column.
+     * @return true if a row has the key.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * KeyFilter players = dataTable.keyFilter("uuid");
+     * boolean firstJoin = !players.exists(uuid);
+     * // SQL, only if the filter may contain the key: "SELECT 1 FROM table_name WHERE uuid = ?;"
+     * }
+     * </pre>
+     */
+    boolean exists(Object key);
+
+    /**
+     * Adds a key inserted without going through the table API.
+     *
+     * @param key the value of the key column.
+     */
+    void add(Object key);
+
+    /**
+     * Checks whether rows may have been inserted without their keys reaching the filter.
+     * While stale every key may exist, until a rebuild completes.
+     *
+     * @return true if the filter is stale.
+     */
+    boolean isStale();
+
+    /**
+     * Gets the number of lookups answered without querying the database.
+     *
+     * @return the number of skipped queries.
+     */
+    long getSkippedQueries();
+
+    /**
+     * Scans the key column and replaces the filter, sized for the current number of rows.
+     */
+    void rebuild();
+
+    /**
+     * Rebuilds the filter on the database executor, reusing a rebuild already in progress.
+     *
+     * @return a future completed when the rebuild finishes.
+     */
+    CompletableFuture<Void> rebuildAsync();
+
+    /**
+     * Stops following the inserts of the table.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,52 @@
+package io.github.pigaut.sql;
+
+import java.util.*;
+import java.util.stream.*;
+
+public interface PageCursor<T> extends Iterator<List<T>> {
+
+    /**
+     * Gets the number of rows requested per page.
+     *
+     * @return the page size.
+     */
+    int getPageSize();
+
+    /**
+     * Gets the key of the last row returned, to resume paging later with {@link #startAfter(Object...)}.
+     *
+     * @return the values of the key columns of the last row, or null if no page has been returned.
+     */
+    Object[] getLastKey();
+
+    /**
+     * Moves the cursor so the next page starts after the given key.
+     *
+     * @param key the values of the key columns, in order.
+     * @return this cursor.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * PageCursor<Player> players = dataTable.paginate(RowMapper.ofRecord(Player.class), 50, "id").startAfter(lastSeenId);
+     * // SQL: "SELECT * FROM table_name WHERE id > ? ORDER BY id LIMIT ?;"
+     * }
+     * </pre>
+     */
+    PageCursor<T> startAfter(Object... key);
+
+    /**
+     * Gets the remaining pages as a lazy stream, each page is only queried when the stream reaches it.
+     *
+     * @return a sequential stream of pages.
+     */
+    Stream<List<T>> pages();
+
+    /**
+     * Gets the rows of the remaining pages as a lazy stream, querying one page at a time.
+     *
+     * @return a sequential stream of rows.
+     */
+    Stream<T> rows();
+
+}
@@ -0,0 +1,89 @@
+package io.github.pigaut.sql;
+
+import io.github.pigaut.sql.database.statement.*;
+import io.github.pigaut.sql.database.table.*;
+
+import java.util.function.*;
+import java.util.stream.*;
+
+public interface ParallelScan {
+
+    /**
+     * Sets the columns read by the scan, every column by default.
+     *
+     * @param columns the columns to read.
+     * @return this scan.
+     */
+    ParallelScan columns(String... columns);
+
+    /**
+     * Sets the number of key ranges scanned at the same time. It is capped by the size of the connection pool,
+     * and is the number of processors by default. Scans inside a transaction always run on one range.
+     *
+     * @param parallelism the number of ranges and of connections used.
+     * @return this scan.
+     */
+    ParallelScan parallelism(int parallelism);
+
+    /**
+     * Sets how the key column is split into ranges, {@link ScanPartitioning#MIN_MAX} by default.
+     *
+     * @param partitioning the partitioning strategy.
+     * @return this scan.
+     */
+    ParallelScan partitioning(ScanPartitioning partitioning);
+
+    /**
+     * Sets the number of rows fetched per round trip by each range query.
+     *
+     * @param fetchSize the fetch size hint.
+     * @return this scan.
+     */
+    ParallelScan fetchSize(int fetchSize);
+
+    /**
+     * Gets the number of ranges the scan is split into, after capping by the connection pool.
+     *
+     * @return the effective parallelism.
+     */
+    int getParallelism();
+
+    /**
+     * Scans the table, each key range on its own pooled connection in a fork-join pool, and passes every row
+     * to the consumer. Rows arrive from several threads at once and in no particular order, so the consumer
+     * must be thread safe. Returns once every range has been read.
+     *
+     * @param mapper   the RowMapper that converts each row.
+     * @param consumer receives every mapped row.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * LongAdder total = new LongAdder();
+     * dataTable.parallelScan("id").columns("coins").forEach(results -> results.getLong(1), total::add);
+     * // SQL per range: "SELECT coins FROM table_name WHERE id >= ? AND id < ?;"
+     * }
+     * </pre>
+     */
+    <T> void forEach(RowMapper<T> mapper, Consumer<? super T> consumer);
+
+    /**
+     * Scans the table as a parallel stream with one key range per split. The ranges are read in the fork-join pool
+     * running the terminal operation, the common pool by default, each holding a connection while it is consumed.
+     * The stream should be used in a try-with-resources block.
+     *
+     * @param mapper the RowMapper that converts each row.
+     * @return a parallel stream of the mapped rows.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * try (Stream<Player> players = dataTable.parallelScan("uuid").stream(RowMapper.ofRecord(Player.class))) {
+     *     Map<String, Long> perRank = players.collect(Collectors.groupingByConcurrent(Player::rank, Collectors.counting()));
+     * }
+     * }
+     * </pre>
+     */
+    <T> Stream<T> stream(RowMapper<T> mapper);
+
+}
@@ -0,0 +1,51 @@
+package io.github.pigaut.sql;
+
+public interface PreparedQuery {
+
+    /**
+     * Gets the database this query executes against.
+     *
+     * @return the Database object.
+     */
+    Database getDatabase();
+
+    /**
+     * Gets the SQL of this query.
+     *
+     * @return the SQL string.
+     */
+    String getSql();
+
+    /**
+     * Gets the number of parameter placeholders in the SQL of this query.
+     *
+     * @return the number of '?' placeholders.
+     */
+    int getParameterCount();
+
+    /**
+     * Creates a copy of this query that executes against another database, such as a transaction.
+     *
+     * @param database the database to execute against.
+     * @return a PreparedQuery with the same SQL bound to the given database.
+     */
+    PreparedQuery on(Database database);
+
+    /**
+     * Creates a statement for this query with the given parameters bound in order.
+     * Prepared queries are immutable and may be shared between threads, each call returns a new statement.
+     *
+     * @param parameters the values of the parameter placeholders.
+     * @return a new DatabaseStatement ready to be executed.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * static final PreparedQuery INSERT_PLAYER = playersTable.insertInto("id", "name").compile();
+     * INSERT_PLAYER.bind(1, "Alice").executeUpdate();
+     * }
+     * </pre>
+     */
+    DatabaseStatement bind(Object... parameters);
+
+}
@@ -5,9 +5,16 @@ import io.github.pigaut.sql.database.*;
 
 import javax.sql.*;
 import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.logging.*;
 
 public class SQLib {
 
+    private static final Logger LOGGER = Logger.getLogger(SQLib.class.getName());
+
     private SQLib() {}
 
     /**
@@ -17,11 +24,7 @@ public class SQLib {
      * @return A DataSource configured to connect to the specified SQLite database file.
      */
     public static HikariDataSource createDataSource(File h2DatabaseFile) {
-        HikariConfig config = new HikariConfig();
-        config.setDataSourceClassName("org.h2.jdbcx.JdbcDataSource");
-        config.setConnectionTestQuery("VALUES 1");
-        config.addDataSourceProperty("URL", "jdbc:h2:file:" + h2DatabaseFile.getAbsolutePath() + ";TRACE_LEVEL_FILE=0;DB_CLOSE_ON_EXIT=FALSE");
-        return new HikariDataSource(config);
+        return DatabaseConfig.h2(h2DatabaseFile).build().createDataSource();
     }
 
     /**
@@ -35,13 +38,7 @@ public class SQLib {
      * @return A DataSource configured to connect to the specified database.
      */
     public static HikariDataSource createDataSource(String database, String host, String port, String username, String password) {
-        HikariConfig config = new HikariConfig();
-        String jdbcUrl = String.format("jdbc:mysql://%s:%s/%s", host, port, database);
-        config.setJdbcUrl(jdbcUrl);
-        config.setUsername(username);
-        config.setPassword(password);
-
-        return new HikariDataSource(config);
+        return DatabaseConfig.mysql(database, host, port, username, password).build().createDataSource();
     }
 
     /**
@@ -51,8 +48,7 @@ public class SQLib {
      * @return A SimpleDatabase instance connected to the specified database file.
      */
     public static Database createDatabase(File file) {
-        HikariDataSource dataSource = createDataSource(file);
-        return new SimpleDatabase(removeExtension(file.getName()), dataSource);
+        return createDatabase(DatabaseConfig.h2(file).build());
     }
 
     /**
@@ -63,9 +59,7 @@ public class SQLib {
      * @return A SimpleDatabase instance connected to the specified database file.
      */
     public static Database createDatabase(File parent, String name) {
-        File dbFile = new File(parent, name);
-        HikariDataSource dataSource = createDataSource(dbFile);
-        return new SimpleDatabase(name, dataSource);
+        return createDatabase(DatabaseConfig.h2(new File(parent, name)).name(name).build());
     }
 
     /**
@@ -79,14 +73,94 @@ public class SQLib {
      * @return A SimpleDatabase instance connected to the specified database.
      */
     public static Database createDatabase(String database, String host, String port, String username, String password) {
-        HikariDataSource dataSource = createDataSource(database, host, port, username, password);
-        return new SimpleDatabase(database, dataSource);
+        return createDatabase(DatabaseConfig.mysql(database, host, port, username, password).build());
     }
 
-    private static String removeExtension(String fileName) {
-        if (fileName == null) return null;
-        int pos = fileName.lastIndexOf(".");
-        return pos == -1 ? fileName : fileName.substring(0, pos);
+    /**
+     * Creates a SimpleDatabase instance with the pool, driver and cache settings of a configuration,
+     * logging the workload profile applied.
+     *
+     * @param config The database configuration.
+     * @return A SimpleDatabase instance connected to the configured database.
+     */
+    public static Database createDatabase(DatabaseConfig config) {
+        HikariDataSource dataSource = config.createDataSource();
+        Executor executor = config.getExecutor();
+        SimpleDatabase database = executor != null
+                ? new SimpleDatabase(config.getName(), dataSource, executor)
+                : new SimpleDatabase(config.getName(), dataSource);
+        database.getStatementCache().setMaxSize(config.getStatementCacheSize());
+        LOGGER.info("Opened database " + config.getName() + " with workload profile " + config.getProfile() + " " + config);
+        return database;
+    }
+
+    /**
+     * Creates a ReplicatedDatabase that sends writes to the primary and reads to the replicas,
+     * reading from the primary for 1 second after each write of the reading thread.
+     *
+     * @param primary  The configuration of the primary database.
+     * @param replicas The configurations of the replicas.
+     * @return A ReplicatedDatabase instance.
+     */
+    public static ReplicatedDatabase createReplicatedDatabase(DatabaseConfig primary, DatabaseConfig... replicas) {
+        return createReplicatedDatabase(primary, List.of(replicas), 1000);
+    }
+
+    /**
+     * Creates a ReplicatedDatabase that sends writes to the primary and reads to the replicas.
+     *
+     * @param primary              The configuration of the primary database.
+     * @param replicas             The configurations of the replicas.
+     * @param readYourWritesMillis The time after a write during which reads of the writing thread go to the primary.
+     * @return A ReplicatedDatabase instance.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * Database database = SQLib.createReplicatedDatabase(DatabaseConfig.mysql("network", "primary", "3306", user, password).build(),
+     *         List.of(DatabaseConfig.mysql("network", "replica-1", "3306", user, password).profile(WorkloadProfile.READ_MOSTLY).build()),
+     *         500);
+     * }
+     * </pre>
+     */
+    public static ReplicatedDatabase createReplicatedDatabase(DatabaseConfig primary, List<DatabaseConfig> replicas, long readYourWritesMillis) {
+        HikariDataSource dataSource = primary.createDataSource();
+        List<HikariDataSource> replicaSources = new ArrayList<>();
+        for (DatabaseConfig replica : replicas) {
+            HikariDataSource replicaSource = replica.createDataSource();
+            if (replica.getConnectionTimeout() == 0) {
+                replicaSource.setConnectionTimeout(ReplicatedDatabase.DEFAULT_REPLICA_TIMEOUT_MILLIS);
+            }
+            replicaSources.add(replicaSource);
+        }
+        Executor executor = primary.getExecutor();
+        ReplicatedDatabase database = executor != null
+                ? new ReplicatedDatabase(primary.getName(), dataSource, replicaSources, readYourWritesMillis, executor)
+                : new ReplicatedDatabase(primary.getName(), dataSource, replicaSources, readYourWritesMillis);
+        database.getStatementCache().setMaxSize(primary.getStatementCacheSize());
+        LOGGER.info("Opened database " + primary.getName() + " with workload profile " + primary.getProfile() + " " + primary
+                + " and " + replicas.size() + " read replicas");
+        return database;
+    }
+
+    /**
+     * Creates the default executor used for asynchronous statements.
+     * On Java 21+ every task runs on its own virtual thread, otherwise a cached pool of daemon threads is used.
+     *
+     * @return A new ExecutorService for running database tasks.
+     */
+    public static ExecutorService createDefaultExecutor() {
+        try {
+            Method virtualExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualExecutor.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "SQLib-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
 }
@@ -0,0 +1,89 @@
+package io.github.pigaut.sql;
+
+import io.github.pigaut.sql.database.statement.*;
+
+import java.util.*;
+import java.util.function.*;
+
+public interface ShardedTable {
+
+    /**
+     * Gets the name of the table.
+     *
+     * @return the name of the table.
+     */
+    String getName();
+
+    /**
+     * Gets the table in the database holding the rows with the given shard key.
+     *
+     * @param shardKey the shard key of the rows to read or write.
+     * @return the DataTable of the owning shard.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * Optional<String> name = players.shard(uuid).select("WHERE uuid = ?", "name").withParameter(uuid).fetchOne(NAME);
+     * }
+     * </pre>
+     */
+    DataTable shard(Object shardKey);
+
+    /**
+     * Gets the table in every shard, in shard order.
+     *
+     * @return the DataTable of each shard.
+     */
+    List<DataTable> getShardTables();
+
+    /**
+     * Creates the table in every shard if it does not already exist, with the specified columns.
+     *
+     * @param columns Column definitions.
+     */
+    void createIfNotExists(String... columns);
+
+    /**
+     * Runs a query on every shard in parallel and concatenates the rows, in shard order.
+     *
+     * @param query  creates the statement to run on the table of a shard.
+     * @param mapper maps each row.
+     * @return the rows of every shard.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * List<String> online = players.fetchAll(table -> table.select("WHERE online = TRUE", "name"), NAME);
+     * }
+     * </pre>
+     */
+    <T> List<T> fetchAll(Function<DataTable, DatabaseStatement> query, RowMapper<T> mapper);
+
+    /**
+     * Runs a query on every shard in parallel and merges the rows in the given order.
+     * Each shard query must already return its rows in that order, usually with a matching ORDER BY,
+     * since the shard results are merged as they are rather than sorted again.
+     *
+     * @param query  creates the statement to run on the table of a shard.
+     * @param mapper maps each row.
+     * @param order  the order of the merged rows.
+     * @return the rows of every shard, ordered.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * List<String> ranking = players.fetchAll(table -> table.select("ORDER BY name", "name"), NAME, Comparator.naturalOrder());
+     * }
+     * </pre>
+     */
+    <T> List<T> fetchAll(Function<DataTable, DatabaseStatement> query, RowMapper<T> mapper, Comparator<? super T> order);
+
+    /**
+     * Runs an update on every shard in parallel.
+     *
+     * @param update creates the statement to run on the table of a shard.
+     * @return the total number of updated rows.
+     */
+    long executeUpdate(Function<DataTable, DatabaseStatement> update);
+
+}
@@ -13,6 +13,7 @@ public class StatementTemplate {
 
     public static final String INSERT = "INSERT INTO %s %s;";
     public static final String INSERT_COLUMNS = "INSERT INTO %s (%s) VALUES (%s);";
+    public static final String INSERT_ROWS = "INSERT INTO %s (%s) VALUES %s;";
     public static final String INSERT_ALL = "INSERT INTO %s VALUES (%s);";
     public static final String SET = "UPDATE %s SET %s";
     public static final String SET_EACH = "UPDATE %s SET %s %s";
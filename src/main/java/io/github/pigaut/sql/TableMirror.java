@@ -0,0 +1,111 @@
+package io.github.pigaut.sql;
+
+import java.util.*;
+import java.util.function.*;
+
+public interface TableMirror<T> extends AutoCloseable {
+
+    /**
+     * Gets the table mirrored in memory.
+     *
+     * @return the DataTable object.
+     */
+    DataTable getTable();
+
+    /**
+     * Adds an index that finds rows by an exact key. Rows with a null key are not indexed.
+     *
+     * @param name the name of the index.
+     * @param key  extracts the key of a row.
+     * @return this mirror.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * TableMirror<Item> items = dataTable.mirror(RowMapper.ofRecord(Item.class)).addHashIndex("name", Item::name);
+     * Optional<Item> sword = items.getFirst("name", "sword");
+     * }
+     * </pre>
+     */
+    TableMirror<T> addHashIndex(String name, Function<T, ?> key);
+
+    /**
+     * Adds an index that keeps rows ordered by a comparable key, to find rows within a range of keys.
+     * Rows with a null key are not indexed.
+     *
+     * @param name the name of the index.
+     * @param key  extracts the key of a row.
+     * @return this mirror.
+     */
+    TableMirror<T> addSortedIndex(String name, Function<T, ? extends Comparable<?>> key);
+
+    /**
+     * Gets every row of the table.
+     *
+     * @return an unmodifiable list of the rows, in the order they were loaded.
+     */
+    List<T> getAll();
+
+    /**
+     * Gets the rows with the given key in an index.
+     *
+     * @param index the name of a hash or sorted index.
+     * @param key   the key to look up.
+     * @return an unmodifiable list of the matching rows, empty if none match.
+     */
+    List<T> get(String index, Object key);
+
+    /**
+     * Gets the first row with the given key in an index.
+     *
+     * @param index the name of a hash or sorted index.
+     * @param key   the key to look up.
+     * @return the first matching row, or empty if none match.
+     */
+    Optional<T> getFirst(String index, Object key);
+
+    /**
+     * Gets the rows whose key in a sorted index is within a range, in key order.
+     *
+     * @param index the name of a sorted index.
+     * @param from  the lowest key, inclusive.
+     * @param to    the highest key, exclusive.
+     * @return an unmodifiable list of the matching rows.
+     */
+    List<T> getRange(String index, Object from, Object to);
+
+    /**
+     * Gets the number of mirrored rows.
+     *
+     * @return the number of rows.
+     */
+    int size();
+
+    /**
+     * Loads every row of the table again from the primary connection and rebuilds the indexes.
+     * Called automatically on the database scheduler shortly after writes made through the mirrored table object.
+     */
+    void reload();
+
+    /**
+     * Reloads the mirror right away if a write made through the mirrored table object has not been loaded yet,
+     * so the caller reads its own writes without waiting for the background reload.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * dataTable.insertInto("name", "price").withParameter("sword").withParameter(10).executeUpdate();
+     * items.refresh();
+     * Optional<Item> sword = items.getFirst("name", "sword");
+     * }
+     * </pre>
+     */
+    void refresh();
+
+    /**
+     * Stops following the writes of the table.
+     */
+    @Override
+    void close();
+
+}
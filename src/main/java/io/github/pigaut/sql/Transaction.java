@@ -0,0 +1,55 @@
+package io.github.pigaut.sql;
+
+import java.sql.*;
+
+public interface Transaction extends Database {
+
+    /**
+     * Gets the database this transaction was started on.
+     *
+     * @return the parent Database object.
+     */
+    Database getParent();
+
+    /**
+     * Creates an unnamed savepoint in the current transaction.
+     *
+     * @return the new Savepoint.
+     */
+    Savepoint setSavepoint();
+
+    /**
+     * Creates a savepoint with the given name in the current transaction.
+     *
+     * @param name the name of the savepoint.
+     * @return the new Savepoint.
+     */
+    Savepoint setSavepoint(String name);
+
+    /**
+     * Undoes all changes made after the given savepoint was set.
+     *
+     * @param savepoint the savepoint to roll back to.
+     */
+    void rollback(Savepoint savepoint);
+
+    /**
+     * Removes the given savepoint from the current transaction.
+     *
+     * @param savepoint the savepoint to remove.
+     */
+    void releaseSavepoint(Savepoint savepoint);
+
+    /**
+     * Undoes all changes made in the current transaction so far.
+     */
+    void rollback();
+
+    /**
+     * Registers a task to run once the transaction has been committed, it is discarded if the transaction rolls back.
+     *
+     * @param task the task to run after the commit.
+     */
+    void afterCommit(Runnable task);
+
+}
@@ -0,0 +1,67 @@
+package io.github.pigaut.sql;
+
+import java.util.*;
+import java.util.function.*;
+
+public interface WriteBehindWriter extends AutoCloseable {
+
+    /**
+     * Queues a row to be inserted by a later flush.
+     *
+     * @param values the values of the row, in the order of the writer columns.
+     * @return true if the row was queued, false if it was dropped because the queue is full.
+     */
+    boolean write(Object... values);
+
+    /**
+     * Inserts every queued row now, in batches of at most the configured number of rows per transaction.
+     * Rows of earlier failed batches are retried first in batches of their own, and rows that keep failing are
+     * retried one at a time so a single bad row does not hold back the others.
+     */
+    void flush();
+
+    /**
+     * Gets the number of rows waiting to be inserted, including rows waiting to be retried.
+     *
+     * @return the number of pending rows.
+     */
+    int getPendingRows();
+
+    /**
+     * Gets the number of rows dropped because the queue was full.
+     *
+     * @return the number of dropped rows.
+     */
+    long getDroppedRows();
+
+    /**
+     * Sets the handler receiving rows that still failed when inserted alone after several failed flushes, or that did
+     * not fit in the retry queue. By default they are logged and discarded.
+     *
+     * @param handler receives the rows given up on, in the order of the writer columns.
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * WriteBehindWriter writer = dataTable.writeBehind("player", "action", "time");
+     * writer.onDeadLetter(rows -> rows.forEach(row -> auditLog.severe("Lost action: " + Arrays.toString(row))));
+     * }
+     * </pre>
+     */
+    void onDeadLetter(Consumer<List<Object[]>> handler);
+
+    /**
+     * Gets the number of rows given up on and passed to the dead letter handler.
+     *
+     * @return the number of dead letter rows.
+     */
+    long getDeadLetterRows();
+
+    /**
+     * Stops accepting rows, stops the periodic flush and inserts the remaining rows.
+     * Rows that still cannot be inserted are passed to the dead letter handler.
+     */
+    @Override
+    void close();
+
+}
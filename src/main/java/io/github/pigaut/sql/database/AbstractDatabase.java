@@ -0,0 +1,190 @@
+package io.github.pigaut.sql.database;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.statement.*;
+import io.github.pigaut.sql.database.table.*;
+import io.github.pigaut.sql.database.transaction.*;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public abstract class AbstractDatabase implements Database {
+
+    private final String name;
+
+    public AbstractDatabase(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public GenericDataTable tableOf(String name) {
+        return new GenericDataTable(name, this);
+    }
+
+    @Override
+    public DatabaseStatement createStatement(String sql) {
+        return new GenericDatabaseStatement(this, sql);
+    }
+
+    @Override
+    public DatabaseStatement createStatement(PlaceholderTemplate template, Map<String, String> values) {
+        return createStatement(template.render(values));
+    }
+
+    @Override
+    public PreparedQuery prepareQuery(String sql) {
+        return new GenericPreparedQuery(this, sql);
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        return getConnection();
+    }
+
+    private <T> T executeStatement(StatementExecutor<T> executor) {
+        try {
+            return executeOn(getConnection(), executor);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private <T> T executeRead(StatementExecutor<T> executor) {
+        try {
+            return executeOn(getReadConnection(), executor);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private <T> T executeOn(Connection connection, StatementExecutor<T> executor) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return executor.execute(statement);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementExecutor<T> {
+        T execute(Statement statement) throws SQLException;
+    }
+
+    @Override
+    public void execute(String sql) {
+        executeStatement(statement -> statement.execute(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) {
+        return executeStatement(statement -> statement.executeUpdate(sql));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) {
+        return executeStatement(statement -> statement.executeLargeUpdate(sql));
+    }
+
+    @Override
+    public void executeQuery(String sql, QueryReader reader) {
+        executeRead(statement -> {
+            try (ResultSet results = statement.executeQuery(sql)) {
+                reader.read(results);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> executeAsync(String sql) {
+        return CompletableFuture.runAsync(() -> execute(sql), getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeUpdateAsync(String sql) {
+        return CompletableFuture.supplyAsync(() -> executeUpdate(sql), getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Long> executeLargeUpdateAsync(String sql) {
+        return CompletableFuture.supplyAsync(() -> executeLargeUpdate(sql), getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Void> executeQueryAsync(String sql, QueryReader reader) {
+        return CompletableFuture.runAsync(() -> executeQuery(sql, reader), getExecutor());
+    }
+
+    @Override
+    public void inTransaction(TransactionAction action) {
+        runTransaction(null, action);
+    }
+
+    @Override
+    public void inTransaction(int isolationLevel, TransactionAction action) {
+        runTransaction(isolationLevel, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> inTransactionAsync(TransactionAction action) {
+        return CompletableFuture.runAsync(() -> runTransaction(null, action), getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Void> inTransactionAsync(int isolationLevel, TransactionAction action) {
+        return CompletableFuture.runAsync(() -> runTransaction(isolationLevel, action), getExecutor());
+    }
+
+    private void runTransaction(Integer isolationLevel, TransactionAction action) {
+        DatabaseTransaction transaction;
+        try {
+            Connection connection = getConnection();
+            try {
+                boolean autoCommit = connection.getAutoCommit();
+                int previousIsolation = connection.getTransactionIsolation();
+                connection.setAutoCommit(false);
+                if (isolationLevel != null) {
+                    connection.setTransactionIsolation(isolationLevel);
+                }
+                transaction = new DatabaseTransaction(this, connection);
+                Throwable failure = null;
+                try {
+                    action.run(transaction);
+                    connection.commit();
+                } catch (SQLException | RuntimeException | Error e) {
+                    failure = e;
+                    try {
+                        connection.rollback();
+                    } catch (SQLException rollbackException) {
+                        e.addSuppressed(rollbackException);
+                    }
+                    throw e;
+                } finally {
+                    try {
+                        if (isolationLevel != null) {
+                            connection.setTransactionIsolation(previousIsolation);
+                        }
+                        connection.setAutoCommit(autoCommit);
+                    } catch (SQLException restoreException) {
+                        if (failure == null) {
+                            throw restoreException;
+                        }
+                        failure.addSuppressed(restoreException);
+                    }
+                }
+            } finally {
+                releaseConnection(connection);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        transaction.committed();
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.github.pigaut.sql.database;
+
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Consistent hash ring placing each node at many virtual points, so keys spread evenly and adding a node
+ * only moves the keys that now map to it. Integral keys are hashed by value and every other key by its
+ * string form. The ring is immutable once built and safe to share between threads.
+ */
+public final class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring;
+
+    private ConsistentHashRing(NavigableMap<Long, T> ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Builds a ring for the given nodes.
+     *
+     * @param nodes        the nodes by unique name.
+     * @param virtualNodes the number of points of each node on the ring.
+     * @return a new ConsistentHashRing.
+     */
+    public static <T> ConsistentHashRing<T> of(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A hash ring needs at least one node and one virtual node per node");
+        }
+        NavigableMap<Long, T> ring = new TreeMap<>();
+        for (Map.Entry<String, T> node : nodes.entrySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node.getKey() + "#" + i), node.getValue());
+            }
+        }
+        return new ConsistentHashRing<>(ring);
+    }
+
+    /**
+     * Gets the node owning a key, the first node clockwise from the hash of the key.
+     *
+     * @param key the key to locate.
+     * @return the owning node.
+     */
+    public T get(Object key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(Object key) {
+        long hash;
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            hash = ((Number) key).longValue();
+        } else {
+            hash = 0xCBF29CE484222325L;
+            for (byte b : String.valueOf(key).getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+            }
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
@@ -0,0 +1,164 @@
+package io.github.pigaut.sql.database;
+
+import com.zaxxer.hikari.*;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Database that sends writes and transactions to a primary data source and read-only queries to replicas.
+ * Each read goes to the replica with the fewest reads in flight. For a window after every write, reads go
+ * to the primary so changes are visible before the replicas catch up. The window is shared by the whole
+ * database rather than kept per thread, because async work hops between executor threads.
+ * Reads inside a transaction always use the connection of the transaction.
+ * A replica that fails to hand out a connection is skipped for a while and its reads go to the other replicas.
+ */
+public class ReplicatedDatabase extends SimpleDatabase {
+
+    /**
+     * Connection timeout of replicas without one configured, so reads fall back to the primary quickly.
+     */
+    public static final long DEFAULT_REPLICA_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * Time a replica is skipped after failing to hand out a connection.
+     */
+    public static final long REPLICA_RETRY_MILLIS = 30000;
+
+    private final Replica primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesNanos;
+    private final Map<Connection, Replica> readConnections = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile long lastWriteNanos;
+
+    public ReplicatedDatabase(String name, HikariDataSource primary, List<HikariDataSource> replicas, long readYourWritesMillis) {
+        super(name, primary);
+        this.primary = new Replica(primary);
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.lastWriteNanos = System.nanoTime() - readYourWritesNanos;
+    }
+
+    public ReplicatedDatabase(String name, HikariDataSource primary, List<HikariDataSource> replicas, long readYourWritesMillis,
+                              Executor executor) {
+        super(name, primary, executor);
+        this.primary = new Replica(primary);
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.lastWriteNanos = System.nanoTime() - readYourWritesNanos;
+    }
+
+    /**
+     * Gets the number of reads served by the primary.
+     */
+    public long getPrimaryReads() {
+        return primary.reads.sum();
+    }
+
+    /**
+     * Gets the number of reads served by each replica, in the order the replicas were given.
+     */
+    public long[] getReplicaReads() {
+        long[] reads = new long[replicas.size()];
+        for (int i = 0; i < reads.length; i++) {
+            reads[i] = replicas.get(i).reads.sum();
+        }
+        return reads;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        markWrite();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        long now = System.nanoTime();
+        if (replicas.isEmpty() || now - lastWriteNanos < readYourWritesNanos) {
+            return borrowRead(primary);
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        Replica selected = null;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (now - replica.downSinceNanos < TimeUnit.MILLISECONDS.toNanos(REPLICA_RETRY_MILLIS)) {
+                continue;
+            }
+            if (selected == null || replica.inFlight.get() < selected.inFlight.get()) {
+                selected = replica;
+            }
+        }
+        if (selected == null) {
+            return borrowRead(primary);
+        }
+        try {
+            return borrowRead(selected);
+        } catch (SQLException e) {
+            selected.downSinceNanos = System.nanoTime();
+            return borrowRead(primary);
+        }
+    }
+
+    @Override
+    public void releaseConnection(Connection connection) throws SQLException {
+        Replica replica = readConnections.remove(connection);
+        if (replica != null) {
+            replica.inFlight.decrementAndGet();
+            connection.close();
+            return;
+        }
+        try {
+            super.releaseConnection(connection);
+        } finally {
+            markWrite();
+        }
+    }
+
+    private void markWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    private Connection borrowRead(Replica replica) throws SQLException {
+        replica.inFlight.incrementAndGet();
+        try {
+            Connection connection = replica.dataSource.getConnection();
+            replica.reads.increment();
+            readConnections.put(connection, replica);
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            replica.inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeConnection() {
+        try {
+            super.closeConnection();
+        } finally {
+            for (Replica replica : replicas) {
+                replica.dataSource.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder reads = new LongAdder();
+        private volatile long downSinceNanos;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.downSinceNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(REPLICA_RETRY_MILLIS);
+        }
+
+    }
+
+}
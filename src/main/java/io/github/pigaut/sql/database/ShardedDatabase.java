@@ -0,0 +1,149 @@
+package io.github.pigaut.sql.database;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.table.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Group of databases holding disjoint parts of the same tables, with each row living in the database chosen
+ * by consistent hashing of its shard key. Operations with a shard key run on one database, and operations
+ * without one run on every database in parallel and merge their results.
+ *
+ * <pre>
+ * {@code
+ * ShardedDatabase network = new ShardedDatabase(List.of(
+ *         SQLib.createDatabase(new File("shard-0")),
+ *         SQLib.createDatabase(new File("shard-1"))));
+ * ShardedTable players = network.tableOf("players");
+ * players.shard(uuid).insertInto("uuid", "name").withParameter(uuid).withParameter(name).executeUpdate();
+ * }
+ * </pre>
+ */
+public class ShardedDatabase {
+
+    /**
+     * Number of points of each database on the hash ring.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final List<Database> shards;
+    private final ConsistentHashRing<Database> ring;
+
+    public ShardedDatabase(List<Database> shards) {
+        this(shards, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Creates a sharded database. Databases are placed on the ring by their position in the list, so the order
+     * must not change between runs and new databases must be appended, otherwise rows are looked up in the wrong database.
+     *
+     * @param shards       the databases holding the shards.
+     * @param virtualNodes the number of points of each database on the hash ring.
+     */
+    public ShardedDatabase(List<Database> shards, int virtualNodes) {
+        Map<String, Database> nodes = new LinkedHashMap<>();
+        Set<Database> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < shards.size(); i++) {
+            Database shard = shards.get(i);
+            if (!distinct.add(shard)) {
+                throw new IllegalArgumentException("Database given twice: " + shard.getName());
+            }
+            // names alone are not unique, two files with the same name in different folders share it
+            nodes.put("shard-" + i, shard);
+        }
+        this.shards = List.copyOf(shards);
+        this.ring = ConsistentHashRing.of(nodes, virtualNodes);
+    }
+
+    /**
+     * Gets every database of this group, in the order they were given.
+     */
+    public List<Database> getShards() {
+        return shards;
+    }
+
+    /**
+     * Gets the database holding the rows with the given shard key.
+     *
+     * @param shardKey the shard key.
+     * @return the owning database.
+     */
+    public Database shardFor(Object shardKey) {
+        return ring.get(shardKey);
+    }
+
+    /**
+     * Creates a ShardedTable for a table present in every database of this group.
+     *
+     * @param name the name of the table.
+     * @return a new ShardedTable.
+     */
+    public ShardedTable tableOf(String name) {
+        return new GenericShardedTable(this, name);
+    }
+
+    /**
+     * Runs a task on every database in parallel, on the executor of each database, and waits for all of them.
+     * If a database fails, the tasks that have not started yet are cancelled and the failure is thrown.
+     *
+     * @param task the task to run with each database.
+     * @return the result of each database, in shard order.
+     */
+    public <T> List<T> scatter(Function<Database, T> task) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (Database shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(shard), shard.getExecutor()));
+        }
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    futures.forEach(other -> other.cancel(false));
+                }
+            });
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        RuntimeException cancelled = null;
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CancellationException e) {
+                // cancelled because another database failed, keep looking for that failure
+                cancelled = e;
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        if (cancelled != null) {
+            throw cancelled;
+        }
+        return results;
+    }
+
+    /**
+     * Closes every database of this group.
+     */
+    public void closeConnection() {
+        RuntimeException closeException = null;
+        for (Database shard : shards) {
+            try {
+                shard.closeConnection();
+            } catch (RuntimeException e) {
+                if (closeException == null) {
+                    closeException = e;
+                } else {
+                    closeException.addSuppressed(e);
+                }
+            }
+        }
+        if (closeException != null) {
+            throw closeException;
+        }
+    }
+
+}
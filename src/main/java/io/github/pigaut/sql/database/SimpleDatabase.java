@@ -3,90 +3,117 @@ package io.github.pigaut.sql.database;
 import com.zaxxer.hikari.*;
 import io.github.pigaut.sql.*;
 import io.github.pigaut.sql.database.statement.*;
-import io.github.pigaut.sql.database.table.*;
 
 import javax.sql.*;
 import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
 
-public class SimpleDatabase implements Database {
+public class SimpleDatabase extends AbstractDatabase {
 
-    private final String name;
     private final HikariDataSource dataSource;
+    private final ExecutorService defaultExecutor;
+    private final StatementCache statementCache = new StatementCache(StatementCache.DEFAULT_SIZE);
+    private final ReadCoalescer readCoalescer = new ReadCoalescer();
+    private final List<Runnable> closeHooks = new CopyOnWriteArrayList<>();
+    private Executor executor;
+    private ScheduledExecutorService scheduler;
 
     public SimpleDatabase(String name, HikariDataSource dataSource) {
-        this.name = name;
+        super(name);
         this.dataSource = dataSource;
+        this.defaultExecutor = SQLib.createDefaultExecutor();
+        this.executor = defaultExecutor;
     }
 
-    @Override
-    public String getName() {
-        return name;
+    public SimpleDatabase(String name, HikariDataSource dataSource, Executor executor) {
+        super(name);
+        this.dataSource = dataSource;
+        this.defaultExecutor = null;
+        this.executor = executor;
     }
 
     @Override
-    public GenericDataTable tableOf(String name) {
-        return new GenericDataTable(name, this);
+    public DataSource getDataSource() {
+        return dataSource;
     }
 
     @Override
-    public DatabaseStatement createStatement(String sql) {
-        return new GenericDatabaseStatement(this, sql);
+    public Executor getExecutor() {
+        return executor;
     }
 
     @Override
-    public DataSource getDataSource() {
-        return dataSource;
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
     }
 
-    private <T> T executeStatement(StatementExecutor<T> executor) {
-        try (Connection connection = dataSource.getConnection()) {
-            try (Statement statement = connection.createStatement()) {
-                try {
-                    return executor.execute(statement);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e.getMessage());
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException(e.getMessage());
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e.getMessage());
+    @Override
+    public synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "SQLib-scheduler-" + getName());
+                thread.setDaemon(true);
+                return thread;
+            });
         }
+        return scheduler;
     }
 
-    @FunctionalInterface
-    private interface StatementExecutor<T> {
-        T execute(Statement statement) throws SQLException;
+    @Override
+    public Runnable addCloseHook(Runnable hook) {
+        closeHooks.add(hook);
+        return () -> closeHooks.remove(hook);
     }
 
     @Override
-    public void execute(String sql) {
-        executeStatement(statement -> statement.execute(sql));
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
     }
 
     @Override
-    public int executeUpdate(String sql) {
-        return executeStatement(statement -> statement.executeUpdate(sql));
+    public void releaseConnection(Connection connection) throws SQLException {
+        connection.close();
     }
 
     @Override
-    public long executeLargeUpdate(String sql) {
-        return executeStatement(statement -> statement.executeLargeUpdate(sql));
+    public StatementCache getStatementCache() {
+        return statementCache;
     }
 
     @Override
-    public void executeQuery(String sql, QueryReader reader) {
-        executeStatement(statement -> {
-            try (ResultSet results = statement.executeQuery(sql)) {
-                reader.read(results);
-            }
-            return null;
-        });
+    public ReadCoalescer getReadCoalescer() {
+        return readCoalescer;
     }
 
     @Override
     public void closeConnection() {
+        RuntimeException hookException = null;
+        for (Runnable hook : closeHooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                if (hookException == null) {
+                    hookException = e;
+                } else {
+                    hookException.addSuppressed(e);
+                }
+            }
+        }
+        closeHooks.clear();
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+        if (defaultExecutor != null) {
+            defaultExecutor.shutdown();
+        }
+        statementCache.clear();
         dataSource.close();
+        if (hookException != null) {
+            throw hookException;
+        }
     }
 
 }
@@ -0,0 +1,123 @@
+package io.github.pigaut.sql.database;
+
+import java.util.*;
+
+/**
+ * Named sets of pool and driver settings tuned for a kind of workload.
+ */
+public enum WorkloadProfile {
+
+    /**
+     * Pool and driver defaults, without tuning.
+     */
+    DEFAULT(10, 10, 64,
+            Map.of(),
+            Map.of()),
+
+    /**
+     * Many small reads and writes from concurrent threads: a fixed size pool, server side prepared statements
+     * cached by the driver, rewritten batches and no round trips for session state the driver already knows.
+     */
+    OLTP(10, 10, 128,
+            orderedMap("cachePrepStmts", "true",
+                    "prepStmtCacheSize", "250",
+                    "prepStmtCacheSqlLimit", "2048",
+                    "useServerPrepStmts", "true",
+                    "rewriteBatchedStatements", "true",
+                    "cacheResultSetMetadata", "true",
+                    "cacheServerConfiguration", "true",
+                    "useLocalSessionState", "true",
+                    "elideSetAutoCommits", "true",
+                    "maintainTimeStats", "false"),
+            orderedMap("CACHE_SIZE", "32768",
+                    "LOCK_TIMEOUT", "2000")),
+
+    /**
+     * Few connections writing large batches: batches rewritten into multi-row inserts with client side
+     * prepared statements, a large page cache and long lock timeouts.
+     */
+    BULK_IMPORT(4, 1, 32,
+            orderedMap("cachePrepStmts", "true",
+                    "prepStmtCacheSize", "64",
+                    "useServerPrepStmts", "false",
+                    "rewriteBatchedStatements", "true",
+                    "useLocalSessionState", "true",
+                    "elideSetAutoCommits", "true",
+                    "maintainTimeStats", "false"),
+            orderedMap("CACHE_SIZE", "131072",
+                    "LOCK_TIMEOUT", "30000")),
+
+    /**
+     * Frequent repeated queries and rare writes: a larger pool, large statement caches and cached result set metadata.
+     */
+    READ_MOSTLY(16, 4, 256,
+            orderedMap("cachePrepStmts", "true",
+                    "prepStmtCacheSize", "500",
+                    "prepStmtCacheSqlLimit", "2048",
+                    "useServerPrepStmts", "true",
+                    "cacheResultSetMetadata", "true",
+                    "cacheServerConfiguration", "true",
+                    "useLocalSessionState", "true",
+                    "maintainTimeStats", "false"),
+            orderedMap("CACHE_SIZE", "65536",
+                    "LOCK_TIMEOUT", "5000"));
+
+    private final int poolSize;
+    private final int minimumIdle;
+    private final int statementCacheSize;
+    private final Map<String, String> mysqlProperties;
+    private final Map<String, String> h2Settings;
+
+    WorkloadProfile(int poolSize, int minimumIdle, int statementCacheSize,
+                    Map<String, String> mysqlProperties, Map<String, String> h2Settings) {
+        this.poolSize = poolSize;
+        this.minimumIdle = minimumIdle;
+        this.statementCacheSize = statementCacheSize;
+        this.mysqlProperties = mysqlProperties;
+        this.h2Settings = h2Settings;
+    }
+
+    /**
+     * Gets the maximum number of pooled connections.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Gets the minimum number of idle pooled connections.
+     */
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    /**
+     * Gets the number of prepared statements cached for each connection by SQLib.
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Gets the MySQL Connector/J properties of this profile.
+     */
+    public Map<String, String> getMysqlProperties() {
+        return mysqlProperties;
+    }
+
+    /**
+     * Gets the H2 database settings of this profile, appended to the connection URL.
+     */
+    public Map<String, String> getH2Settings() {
+        return h2Settings;
+    }
+
+    private static Map<String, String> orderedMap(String... keysAndValues) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+}
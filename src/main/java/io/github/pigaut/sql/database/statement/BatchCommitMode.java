@@ -0,0 +1,15 @@
+package io.github.pigaut.sql.database.statement;
+
+public enum BatchCommitMode {
+
+    /**
+     * Commits after every chunk sent to the driver, rows already flushed stay committed if a later chunk fails.
+     */
+    PER_CHUNK,
+
+    /**
+     * Commits once after the last chunk, all chunks succeed or fail together.
+     */
+    AT_END
+
+}
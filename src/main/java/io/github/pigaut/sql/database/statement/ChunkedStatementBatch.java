@@ -0,0 +1,294 @@
+package io.github.pigaut.sql.database.statement;
+
+import io.github.pigaut.sql.*;
+
+import java.io.*;
+import java.sql.*;
+
+public class ChunkedStatementBatch implements ChunkedBatch {
+
+    private final Database database;
+    private final String sql;
+    private final int chunkRows;
+    private final long chunkBytes;
+    private final BatchCommitMode commitMode;
+    private final boolean managesTransaction;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final boolean autoCommit;
+    private final Runnable writeListener;
+
+    private int parameterIndex = 1;
+    private int pendingRows = 0;
+    private long pendingBytes = 0;
+    private long rowCount = 0;
+    private long updateCount = 0;
+    private boolean updateCountUnknown = false;
+    private boolean closed = false;
+
+    public ChunkedStatementBatch(Database database, String sql, int chunkRows, long chunkBytes, BatchCommitMode commitMode) {
+        this(database, sql, chunkRows, chunkBytes, commitMode, null);
+    }
+
+    public ChunkedStatementBatch(Database database, String sql, int chunkRows, long chunkBytes, BatchCommitMode commitMode,
+                                 Runnable writeListener) {
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.database = database;
+        this.sql = sql;
+        this.chunkRows = chunkRows;
+        this.chunkBytes = chunkBytes;
+        this.commitMode = commitMode;
+        this.writeListener = writeListener;
+        this.managesTransaction = !(database instanceof Transaction);
+        try {
+            connection = database.getConnection();
+            try {
+                autoCommit = connection.getAutoCommit();
+                if (managesTransaction) {
+                    connection.setAutoCommit(false);
+                }
+                statement = database.getStatementCache().prepare(connection, sql);
+            } catch (SQLException e) {
+                database.releaseConnection(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public ChunkedBatch withNullParameter() {
+        try {
+            statement.setNull(parameterIndex, Types.NULL);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(4);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(Object object) {
+        try {
+            statement.setObject(parameterIndex, object);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(estimateSize(object));
+    }
+
+    @Override
+    public ChunkedBatch withParameter(Object object, int sqlType) {
+        try {
+            statement.setObject(parameterIndex, object, sqlType);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(estimateSize(object));
+    }
+
+    @Override
+    public ChunkedBatch withParameter(boolean value) {
+        try {
+            statement.setBoolean(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(1);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(String value) {
+        try {
+            statement.setString(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(estimateSize(value));
+    }
+
+    @Override
+    public ChunkedBatch withParameter(int value) {
+        try {
+            statement.setInt(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(4);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(long value) {
+        try {
+            statement.setLong(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(8);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(short value) {
+        try {
+            statement.setShort(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(2);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(byte value) {
+        try {
+            statement.setByte(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(1);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(float value) {
+        try {
+            statement.setFloat(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(4);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(double value) {
+        try {
+            statement.setDouble(parameterIndex, value);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(8);
+    }
+
+    @Override
+    public ChunkedBatch withParameter(InputStream inputStream) {
+        try {
+            statement.setBinaryStream(parameterIndex, inputStream);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return parameterSet(16);
+    }
+
+    @Override
+    public ChunkedBatch addBatch() {
+        try {
+            statement.addBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        parameterIndex = 1;
+        pendingRows++;
+        rowCount++;
+        if (pendingRows >= chunkRows || (chunkBytes > 0 && pendingBytes >= chunkBytes)) {
+            flush();
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        if (pendingRows == 0) {
+            return;
+        }
+        try {
+            for (long count : statement.executeLargeBatch()) {
+                if (count >= 0) {
+                    updateCount += count;
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    updateCountUnknown = true;
+                }
+            }
+            if (managesTransaction && commitMode == BatchCommitMode.PER_CHUNK) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        pendingRows = 0;
+        pendingBytes = 0;
+        if (!managesTransaction || commitMode == BatchCommitMode.PER_CHUNK) {
+            GenericDatabaseStatement.notifyWrite(database, writeListener);
+        }
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public long getUpdateCount() {
+        return updateCountUnknown ? Statement.SUCCESS_NO_INFO : updateCount;
+    }
+
+    @Override
+    public long execute() {
+        flush();
+        if (managesTransaction) {
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                throw new RuntimeException(e.getMessage());
+            }
+        }
+        close();
+        if (managesTransaction && commitMode == BatchCommitMode.AT_END) {
+            GenericDatabaseStatement.notifyWrite(database, writeListener);
+        }
+        return updateCountUnknown ? Statement.SUCCESS_NO_INFO : updateCount;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            try {
+                if (managesTransaction) {
+                    connection.rollback();
+                    connection.setAutoCommit(autoCommit);
+                }
+            } finally {
+                try {
+                    database.getStatementCache().release(connection, sql, statement);
+                } finally {
+                    database.releaseConnection(connection);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private ChunkedBatch parameterSet(long size) {
+        parameterIndex++;
+        pendingBytes += size;
+        return this;
+    }
+
+    private static long estimateSize(Object object) {
+        if (object == null) {
+            return 4;
+        }
+        if (object instanceof CharSequence sequence) {
+            return 16 + sequence.length() * 2L;
+        }
+        if (object instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        return 16;
+    }
+
+}
@@ -0,0 +1,9 @@
+package io.github.pigaut.sql.database.statement;
+
+public enum ColumnType {
+
+    INT,
+    LONG,
+    DOUBLE
+
+}
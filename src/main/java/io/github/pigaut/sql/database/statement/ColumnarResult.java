@@ -0,0 +1,112 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Numeric query results stored column by column in primitive arrays, one array per selected column.
+ * SQL NULL values are read as 0.
+ */
+public class ColumnarResult {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ColumnType[] types;
+    private final Object[] columns;
+    private int size = 0;
+
+    private ColumnarResult(ColumnType[] types, Object[] columns, int size) {
+        this.types = types;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Reads every row of the result set, column i + 1 being read as types[i].
+     *
+     * @param results the result set to read.
+     * @param types   the type of each column.
+     * @return a ColumnarResult with one array per column.
+     * @throws SQLException if a value could not be read.
+     */
+    public static ColumnarResult read(ResultSet results, ColumnType... types) throws SQLException {
+        Object[] columns = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = switch (types[i]) {
+                case INT -> new int[INITIAL_CAPACITY];
+                case LONG -> new long[INITIAL_CAPACITY];
+                case DOUBLE -> new double[INITIAL_CAPACITY];
+            };
+        }
+        int size = 0;
+        int capacity = INITIAL_CAPACITY;
+        while (results.next()) {
+            if (size == capacity) {
+                capacity *= 2;
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = resize(columns[i], capacity);
+                }
+            }
+            for (int i = 0; i < types.length; i++) {
+                switch (types[i]) {
+                    case INT -> ((int[]) columns[i])[size] = results.getInt(i + 1);
+                    case LONG -> ((long[]) columns[i])[size] = results.getLong(i + 1);
+                    case DOUBLE -> ((double[]) columns[i])[size] = results.getDouble(i + 1);
+                }
+            }
+            size++;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = resize(columns[i], size);
+        }
+        return new ColumnarResult(types.clone(), columns, size);
+    }
+
+    /**
+     * Gets the number of rows read.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the values of a column read as {@link ColumnType#INT}.
+     *
+     * @param column the column index, starting at 1 like JDBC.
+     */
+    public int[] getInts(int column) {
+        return (int[]) getColumn(column, ColumnType.INT);
+    }
+
+    /**
+     * Gets the values of a column read as {@link ColumnType#LONG}.
+     *
+     * @param column the column index, starting at 1 like JDBC.
+     */
+    public long[] getLongs(int column) {
+        return (long[]) getColumn(column, ColumnType.LONG);
+    }
+
+    /**
+     * Gets the values of a column read as {@link ColumnType#DOUBLE}.
+     *
+     * @param column the column index, starting at 1 like JDBC.
+     */
+    public double[] getDoubles(int column) {
+        return (double[]) getColumn(column, ColumnType.DOUBLE);
+    }
+
+    private Object getColumn(int column, ColumnType type) {
+        if (types[column - 1] != type) {
+            throw new IllegalArgumentException("Column " + column + " was read as " + types[column - 1]);
+        }
+        return columns[column - 1];
+    }
+
+    private static Object resize(Object array, int length) {
+        if (array instanceof int[] ints) return Arrays.copyOf(ints, length);
+        if (array instanceof long[] longs) return Arrays.copyOf(longs, length);
+        return Arrays.copyOf((double[]) array, length);
+    }
+
+}
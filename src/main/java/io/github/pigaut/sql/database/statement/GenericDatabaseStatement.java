@@ -5,158 +5,191 @@ import io.github.pigaut.sql.*;
 import java.io.*;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
 
 public class GenericDatabaseStatement implements DatabaseStatement {
 
+    private static final int STREAMING_FETCH_SIZE = -1;
+
     private final Database database;
     private String sql;
-    private final List<StatementOption> options = new ArrayList<>();
-    private int currentParameter = 1;
+    private final ParameterBuffer parameters;
+    private int fetchSize = 0;
+    private QueryCache queryCache;
+    private Runnable writeListener;
 
     public GenericDatabaseStatement(Database database, String sql) {
+        this(database, sql, new ParameterBuffer());
+    }
+
+    public GenericDatabaseStatement(Database database, String sql, ParameterBuffer parameters) {
         this.database = database;
         this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public PreparedQuery compile() {
+        return new GenericPreparedQuery(database, sql, writeListener);
     }
 
     @Override
     public DatabaseStatement replace(String placeholder, String value) {
-        sql = sql.replaceAll(placeholder, value);
+        sql = sql.replace(placeholder, value);
         return this;
     }
 
     @Override
     public DatabaseStatement addOption(StatementOption option) {
-        options.add(option);
+        parameters.addOption(option);
         return this;
     }
 
     @Override
     public void clearOptions() {
-        options.clear();
-        currentParameter = 1;
+        parameters.clear();
     }
 
     @Override
     public DatabaseStatement addBatch() {
-        options.add(PreparedStatement::addBatch);
-        currentParameter = 1;
+        parameters.addBatch();
+        return this;
+    }
+
+    @Override
+    public DatabaseStatement withFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(fetchSize, 0);
+        return this;
+    }
+
+    @Override
+    public DatabaseStatement withStreamingResults() {
+        this.fetchSize = STREAMING_FETCH_SIZE;
+        return this;
+    }
+
+    @Override
+    public DatabaseStatement withCache(QueryCache cache) {
+        this.queryCache = cache;
+        return this;
+    }
+
+    /**
+     * Gets the parameters bound to this statement.
+     */
+    public ParameterBuffer getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Sets a task to run every time this statement successfully modifies the database.
+     * Inside a transaction the task runs once the transaction commits instead.
+     *
+     * @param listener the task to run after each write
+     * @return the updated GenericDatabaseStatement object
+     */
+    public GenericDatabaseStatement withWriteListener(Runnable listener) {
+        this.writeListener = listener;
         return this;
     }
 
     @Override
     public DatabaseStatement withNullParameter() {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setNull(parameterIndex, Types.NULL));
-        currentParameter++;
+        parameters.addNull();
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(Object object) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setObject(parameterIndex, object));
-        currentParameter++;
+        parameters.addObject(object);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(Object object, int sqlType) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setObject(parameterIndex, object, sqlType));
-        currentParameter++;
+        parameters.addObject(object, sqlType);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(boolean value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setBoolean(parameterIndex, value));
-        currentParameter++;
+        parameters.addBoolean(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(String value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setString(parameterIndex, value));
-        currentParameter++;
+        parameters.addString(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(int value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setInt(parameterIndex, value));
-        currentParameter++;
+        parameters.addInt(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(long value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setLong(parameterIndex, value));
-        currentParameter++;
+        parameters.addLong(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(short value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setShort(parameterIndex, value));
-        currentParameter++;
+        parameters.addShort(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(byte value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setByte(parameterIndex, value));
-        currentParameter++;
+        parameters.addByte(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(float value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setFloat(parameterIndex, value));
-        currentParameter++;
+        parameters.addFloat(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(double value) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setDouble(parameterIndex, value));
-        currentParameter++;
+        parameters.addDouble(value);
         return this;
     }
 
     @Override
     public DatabaseStatement withParameter(InputStream inputStream) {
-        final int parameterIndex = currentParameter;
-        options.add(stmt -> stmt.setBinaryStream(parameterIndex, inputStream));
-        currentParameter++;
+        parameters.addBinaryStream(inputStream);
         return this;
     }
 
     @Override
     public boolean execute() {
-        return executeStatement(PreparedStatement::execute);
+        return executeWrite(PreparedStatement::execute);
     }
 
     @Override
     public int executeUpdate() {
-        return executeStatement(PreparedStatement::executeUpdate);
+        return executeWrite(PreparedStatement::executeUpdate);
     }
 
     @Override
     public long executeLargeUpdate() {
-        return executeStatement(PreparedStatement::executeLargeUpdate);
+        return executeWrite(PreparedStatement::executeLargeUpdate);
     }
 
     @Override
     public void executeQuery(QueryReader reader) {
-        executeStatement(preparedStatement -> {
+        executeRead(preparedStatement -> {
             try (ResultSet results = preparedStatement.executeQuery()) {
                 reader.read(results);
             }
@@ -166,7 +199,7 @@ public class GenericDatabaseStatement implements DatabaseStatement {
 
     @Override
     public void fetchRow(QueryReader reader) {
-        executeStatement(preparedStatement -> {
+        executeRead(preparedStatement -> {
             try (ResultSet results = preparedStatement.executeQuery()) {
                 if (results.next()) {
                     reader.read(results);
@@ -178,7 +211,7 @@ public class GenericDatabaseStatement implements DatabaseStatement {
 
     @Override
     public void fetchAllRows(QueryReader reader) {
-        executeStatement(preparedStatement -> {
+        executeRead(preparedStatement -> {
             try (ResultSet results = preparedStatement.executeQuery()) {
                 while (results.next()) {
                     reader.read(results);
@@ -189,36 +222,373 @@ public class GenericDatabaseStatement implements DatabaseStatement {
     }
 
     @Override
-    public int[] executeBatch() {
-        return executeStatement(PreparedStatement::executeBatch);
+    public <T> List<T> fetchAll(RowMapper<T> mapper) {
+        return fetchShared("all", mapper, () -> executeRead(preparedStatement -> {
+            List<T> rows = new ArrayList<>();
+            try (ResultSet results = preparedStatement.executeQuery()) {
+                RowMapper<T> rowMapper = mapper.forResults(results);
+                while (results.next()) {
+                    rows.add(rowMapper.map(results));
+                }
+            }
+            return isShared() ? Collections.unmodifiableList(rows) : rows;
+        }));
     }
 
     @Override
-    public long[] executeLargeBatch() {
-        return executeStatement(PreparedStatement::executeLargeBatch);
+    public <T> Optional<T> fetchOne(RowMapper<T> mapper) {
+        return fetchShared("one", mapper, () -> executeRead(preparedStatement -> {
+            try (ResultSet results = preparedStatement.executeQuery()) {
+                if (results.next()) {
+                    return Optional.ofNullable(mapper.forResults(results).map(results));
+                }
+            }
+            return Optional.empty();
+        }));
     }
 
-    private <T> T executeStatement(StatementExecutor<T> executor) {
-        try (Connection connection = database.getDataSource().getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                for (StatementOption option : options) {
-                    option.apply(statement);
+    @Override
+    public <K, V> Map<K, V> fetchMap(RowMapper<K> keyMapper, RowMapper<V> valueMapper) {
+        return executeRead(preparedStatement -> {
+            Map<K, V> rows = new LinkedHashMap<>();
+            try (ResultSet results = preparedStatement.executeQuery()) {
+                RowMapper<K> rowKeyMapper = keyMapper.forResults(results);
+                RowMapper<V> rowValueMapper = valueMapper.forResults(results);
+                while (results.next()) {
+                    rows.put(rowKeyMapper.map(results), rowValueMapper.map(results));
                 }
-                try {
-                    return executor.execute(statement);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e.getMessage());
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public int[] fetchIntColumn(int column) {
+        return executeRead(preparedStatement -> {
+            try (ResultSet results = preparedStatement.executeQuery()) {
+                int[] values = new int[64];
+                int size = 0;
+                while (results.next()) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = results.getInt(column);
+                }
+                return Arrays.copyOf(values, size);
+            }
+        });
+    }
+
+    @Override
+    public long[] fetchLongColumn(int column) {
+        return executeRead(preparedStatement -> {
+            try (ResultSet results = preparedStatement.executeQuery()) {
+                long[] values = new long[64];
+                int size = 0;
+                while (results.next()) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = results.getLong(column);
                 }
+                return Arrays.copyOf(values, size);
+            }
+        });
+    }
+
+    @Override
+    public double[] fetchDoubleColumn(int column) {
+        return executeRead(preparedStatement -> {
+            try (ResultSet results = preparedStatement.executeQuery()) {
+                double[] values = new double[64];
+                int size = 0;
+                while (results.next()) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = results.getDouble(column);
+                }
+                return Arrays.copyOf(values, size);
+            }
+        });
+    }
+
+    @Override
+    public ColumnarResult fetchColumns(ColumnType... types) {
+        return executeRead(preparedStatement -> {
+            try (ResultSet results = preparedStatement.executeQuery()) {
+                return ColumnarResult.read(results, types);
+            }
+        });
+    }
+
+    @Override
+    public <T> Stream<T> stream(RowMapper<T> mapper) {
+        try {
+            Connection connection = database.getReadConnection();
+            StatementCache statementCache = database.getStatementCache();
+            PreparedStatement statement;
+            try {
+                statement = statementCache.prepare(connection, sql);
             } catch (SQLException e) {
-                throw new RuntimeException(e.getMessage());
+                database.releaseConnection(connection);
+                throw e;
+            }
+            ResourceCloser closer = () -> {
+                try {
+                    statementCache.release(connection, sql, statement, !parameters.hasOptions());
+                } finally {
+                    database.releaseConnection(connection);
+                }
+            };
+            ResultSet results;
+            try {
+                applyOptions(connection, statement);
+                results = statement.executeQuery();
+            } catch (SQLException | RuntimeException e) {
+                closer.close();
+                throw e;
             }
+            ResultSetSpliterator<T> spliterator;
+            try {
+                spliterator = new ResultSetSpliterator<>(results, mapper.forResults(results), closer);
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    results.close();
+                } finally {
+                    closer.close();
+                }
+                throw e;
+            }
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public int[] executeBatch() {
+        return executeWrite(PreparedStatement::executeBatch);
+    }
+
+    @Override
+    public long[] executeLargeBatch() {
+        return executeWrite(PreparedStatement::executeLargeBatch);
+    }
+
+    @Override
+    public ChunkedBatch openBatch(int chunkRows) {
+        return new ChunkedStatementBatch(database, sql, chunkRows, 0, BatchCommitMode.AT_END, writeListener);
+    }
+
+    @Override
+    public ChunkedBatch openBatch(int chunkRows, long chunkBytes, BatchCommitMode commitMode) {
+        return new ChunkedStatementBatch(database, sql, chunkRows, chunkBytes, commitMode, writeListener);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> executeAsync() {
+        return CompletableFuture.supplyAsync(this::execute, database.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Integer> executeUpdateAsync() {
+        return CompletableFuture.supplyAsync(this::executeUpdate, database.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Long> executeLargeUpdateAsync() {
+        return CompletableFuture.supplyAsync(this::executeLargeUpdate, database.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Void> executeQueryAsync(QueryReader reader) {
+        return CompletableFuture.runAsync(() -> executeQuery(reader), database.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Void> fetchRowAsync(QueryReader reader) {
+        return CompletableFuture.runAsync(() -> fetchRow(reader), database.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Void> fetchAllRowsAsync(QueryReader reader) {
+        return CompletableFuture.runAsync(() -> fetchAllRows(reader), database.getExecutor());
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> fetchAllAsync(RowMapper<T> mapper) {
+        return CompletableFuture.supplyAsync(() -> fetchAll(mapper), database.getExecutor());
+    }
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> fetchOneAsync(RowMapper<T> mapper) {
+        return CompletableFuture.supplyAsync(() -> fetchOne(mapper), database.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<int[]> executeBatchAsync() {
+        return CompletableFuture.supplyAsync(this::executeBatch, database.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<long[]> executeLargeBatchAsync() {
+        return CompletableFuture.supplyAsync(this::executeLargeBatch, database.getExecutor());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T fetchShared(String operation, Object mapper, Supplier<T> query) {
+        if (!isShared()) {
+            return query.get();
+        }
+        List<Object> parameterValues = parameters.getValues();
+        if (parameterValues == null) {
+            return query.get();
+        }
+        QueryKey key = new QueryKey(sql, parameterValues, operation, mapper);
+        QueryCache cache = queryCache;
+        if (cache == null) {
+            return database.getReadCoalescer().execute(key, query);
+        }
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        long version = cache.getVersion();
+        ReadCoalescer coalescer = database.getReadCoalescer();
+        T result = coalescer.isEnabled() ? coalescer.execute(key, version, query) : query.get();
+        cache.put(key, result, version);
+        return result;
+    }
+
+    private boolean isShared() {
+        return (queryCache != null || database.getReadCoalescer().isEnabled()) && !(database instanceof Transaction);
+    }
+
+    private <T> T executeWrite(StatementExecutor<T> executor) {
+        T result = executeStatement(executor);
+        notifyWrite(database, writeListener);
+        return result;
+    }
+
+    /**
+     * Runs the write listener once the write is visible to other connections: right away for statements
+     * outside transactions, and after the commit for statements inside one.
+     */
+    static void notifyWrite(Database database, Runnable writeListener) {
+        if (writeListener == null) {
+            return;
+        }
+        if (database instanceof Transaction transaction) {
+            transaction.afterCommit(writeListener);
+        } else {
+            writeListener.run();
+        }
+    }
+
+    private <T> T executeStatement(StatementExecutor<T> executor) {
+        try {
+            return executeOn(database.getConnection(), executor);
         } catch (SQLException e) {
             throw new RuntimeException(e.getMessage());
         }
     }
 
+    private <T> T executeRead(StatementExecutor<T> executor) {
+        try {
+            return executeOn(database.getReadConnection(), executor);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private <T> T executeOn(Connection connection, StatementExecutor<T> executor) throws SQLException {
+        try {
+            StatementCache statementCache = database.getStatementCache();
+            PreparedStatement statement = statementCache.prepare(connection, sql);
+            try {
+                applyOptions(connection, statement);
+                return executor.execute(statement);
+            } finally {
+                statementCache.release(connection, sql, statement, !parameters.hasOptions());
+            }
+        } finally {
+            database.releaseConnection(connection);
+        }
+    }
+
+    private void applyOptions(Connection connection, PreparedStatement statement) throws SQLException {
+        if (fetchSize == STREAMING_FETCH_SIZE) {
+            if (connection.getMetaData().getDriverName().startsWith("MySQL")) {
+                statement.setFetchSize(Integer.MIN_VALUE);
+            }
+        } else if (fetchSize > 0) {
+            statement.setFetchSize(fetchSize);
+        }
+        parameters.apply(statement);
+    }
+
     @FunctionalInterface
     private interface StatementExecutor<T> {
         T execute(PreparedStatement preparedStatement) throws SQLException;
     }
+
+    @FunctionalInterface
+    private interface ResourceCloser {
+        void close() throws SQLException;
+    }
+
+    private static class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final ResultSet results;
+        private final RowMapper<T> mapper;
+        private final ResourceCloser closer;
+        private boolean closed = false;
+
+        private ResultSetSpliterator(ResultSet results, RowMapper<T> mapper, ResourceCloser closer) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.results = results;
+            this.mapper = mapper;
+            this.closer = closer;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!results.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapper.map(results));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException(e.getMessage());
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                try {
+                    results.close();
+                } finally {
+                    closer.close();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e.getMessage());
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,91 @@
+package io.github.pigaut.sql.database.statement;
+
+import io.github.pigaut.sql.*;
+
+public final class GenericPreparedQuery implements PreparedQuery {
+
+    private final Database database;
+    private final String sql;
+    private final int parameterCount;
+    private final Runnable writeListener;
+
+    public GenericPreparedQuery(Database database, String sql) {
+        this(database, sql, null);
+    }
+
+    /**
+     * Creates a prepared query whose bound statements run the given task after each write, deferred to the
+     * commit when bound to a transaction, like {@link GenericDatabaseStatement#withWriteListener(Runnable)}.
+     */
+    public GenericPreparedQuery(Database database, String sql, Runnable writeListener) {
+        this(database, sql, countParameters(sql), writeListener);
+    }
+
+    private GenericPreparedQuery(Database database, String sql, int parameterCount, Runnable writeListener) {
+        this.database = database;
+        this.sql = sql;
+        this.parameterCount = parameterCount;
+        this.writeListener = writeListener;
+    }
+
+    @Override
+    public Database getDatabase() {
+        return database;
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    @Override
+    public PreparedQuery on(Database database) {
+        return new GenericPreparedQuery(database, sql, parameterCount, writeListener);
+    }
+
+    @Override
+    public DatabaseStatement bind(Object... parameters) {
+        if (parameters.length != parameterCount) {
+            throw new IllegalArgumentException("Expected " + parameterCount + " parameters but got " + parameters.length);
+        }
+        DatabaseStatement statement = new GenericDatabaseStatement(database, sql).withWriteListener(writeListener);
+        for (Object parameter : parameters) {
+            if (parameter == null) {
+                statement.withNullParameter();
+            } else {
+                statement.withParameter(parameter);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Counts the '?' placeholders of a sql string, ignoring quoted text and comments.
+     */
+    public static int countParameters(String sql) {
+        int count = 0;
+        int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = sql.indexOf(c, i + 1);
+                i = end == -1 ? length : end;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end == -1 ? length : end;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end == -1 ? length : end + 1;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
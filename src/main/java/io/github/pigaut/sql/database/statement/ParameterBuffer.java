@@ -0,0 +1,236 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Growable buffer of statement parameters, options and batch markers in the order they were added.
+ * Primitive values are stored unboxed next to a type tag, so adding a parameter allocates nothing
+ * once the buffer has grown, and the arrays are reused after {@link #clear()}.
+ */
+public class ParameterBuffer {
+
+    private static final byte NULL = 0;
+    private static final byte OBJECT = 1;
+    private static final byte TYPED_OBJECT = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte STRING = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte FLOAT = 9;
+    private static final byte DOUBLE = 10;
+    private static final byte BINARY_STREAM = 11;
+    private static final byte OPTION = 12;
+    private static final byte BATCH = 13;
+
+    private byte[] types;
+    private long[] primitives;
+    private Object[] objects;
+    private int size = 0;
+
+    public ParameterBuffer() {
+        this(16);
+    }
+
+    public ParameterBuffer(int initialCapacity) {
+        initialCapacity = Math.max(initialCapacity, 1);
+        types = new byte[initialCapacity];
+        primitives = new long[initialCapacity];
+        objects = new Object[initialCapacity];
+    }
+
+    /**
+     * Gets the number of entries (parameters, options and batch markers) in this buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether any statement option was added, options may change settings of the statement itself.
+     */
+    public boolean hasOptions() {
+        for (int i = 0; i < size; i++) {
+            if (types[i] == OPTION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every entry while keeping the allocated arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Drops every entry added after the first given number of entries.
+     *
+     * @param newSize the number of entries to keep.
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("Cannot truncate " + size + " entries to " + newSize);
+        }
+        Arrays.fill(objects, newSize, size, null);
+        size = newSize;
+    }
+
+    public void addNull() {
+        add(NULL, Types.NULL, null);
+    }
+
+    public void addObject(Object object) {
+        add(OBJECT, 0, object);
+    }
+
+    public void addObject(Object object, int sqlType) {
+        add(TYPED_OBJECT, sqlType, object);
+    }
+
+    public void addBoolean(boolean value) {
+        add(BOOLEAN, value ? 1 : 0, null);
+    }
+
+    public void addString(String value) {
+        add(STRING, 0, value);
+    }
+
+    public void addInt(int value) {
+        add(INT, value, null);
+    }
+
+    public void addLong(long value) {
+        add(LONG, value, null);
+    }
+
+    public void addShort(short value) {
+        add(SHORT, value, null);
+    }
+
+    public void addByte(byte value) {
+        add(BYTE, value, null);
+    }
+
+    public void addFloat(float value) {
+        add(FLOAT, Double.doubleToRawLongBits(value), null);
+    }
+
+    public void addDouble(double value) {
+        add(DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    public void addBinaryStream(InputStream inputStream) {
+        add(BINARY_STREAM, 0, inputStream);
+    }
+
+    public void addOption(StatementOption option) {
+        add(OPTION, 0, option);
+    }
+
+    public void addBatch() {
+        add(BATCH, 0, null);
+    }
+
+    /**
+     * Gets the value of every parameter, boxed, to identify the parameters of a query.
+     *
+     * @return the parameter values in order, or null if the buffer holds options, streams or batch markers.
+     */
+    public List<Object> getValues() {
+        List<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long primitive = primitives[i];
+            switch (types[i]) {
+                case NULL -> values.add(null);
+                case OBJECT, TYPED_OBJECT, STRING -> values.add(objects[i]);
+                case BOOLEAN -> values.add(primitive != 0);
+                case INT, LONG, SHORT, BYTE -> values.add(primitive);
+                case FLOAT, DOUBLE -> values.add(Double.longBitsToDouble(primitive));
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Gets the value of every parameter, boxed, skipping options and batch markers,
+     * so the rows of a batch follow one another.
+     *
+     * @return the parameter values in order.
+     */
+    public List<Object> getParameterValues() {
+        List<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long primitive = primitives[i];
+            switch (types[i]) {
+                case NULL -> values.add(null);
+                case OBJECT, TYPED_OBJECT, STRING, BINARY_STREAM -> values.add(objects[i]);
+                case BOOLEAN -> values.add(primitive != 0);
+                case INT, LONG, SHORT, BYTE -> values.add(primitive);
+                case FLOAT, DOUBLE -> values.add(Double.longBitsToDouble(primitive));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Applies every entry to the given statement in order, starting again from the first
+     * parameter index after each batch marker.
+     *
+     * @param statement the statement to set the parameters on.
+     * @throws SQLException if a parameter could not be set.
+     */
+    public void apply(PreparedStatement statement) throws SQLException {
+        int parameterIndex = 1;
+        for (int i = 0; i < size; i++) {
+            long primitive = primitives[i];
+            Object object = objects[i];
+            switch (types[i]) {
+                case NULL -> statement.setNull(parameterIndex++, (int) primitive);
+                case OBJECT -> statement.setObject(parameterIndex++, object);
+                case TYPED_OBJECT -> statement.setObject(parameterIndex++, object, (int) primitive);
+                case BOOLEAN -> statement.setBoolean(parameterIndex++, primitive != 0);
+                case STRING -> statement.setString(parameterIndex++, (String) object);
+                case INT -> statement.setInt(parameterIndex++, (int) primitive);
+                case LONG -> statement.setLong(parameterIndex++, primitive);
+                case SHORT -> statement.setShort(parameterIndex++, (short) primitive);
+                case BYTE -> statement.setByte(parameterIndex++, (byte) primitive);
+                case FLOAT -> statement.setFloat(parameterIndex++, (float) Double.longBitsToDouble(primitive));
+                case DOUBLE -> statement.setDouble(parameterIndex++, Double.longBitsToDouble(primitive));
+                case BINARY_STREAM -> statement.setBinaryStream(parameterIndex++, (InputStream) object);
+                case OPTION -> ((StatementOption) object).apply(statement);
+                case BATCH -> {
+                    statement.addBatch();
+                    parameterIndex = 1;
+                }
+            }
+        }
+    }
+
+    private void add(byte type, long primitive, Object object) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            primitives = Arrays.copyOf(primitives, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        types[size] = type;
+        primitives[size] = primitive;
+        objects[size] = object;
+        size++;
+    }
+
+}
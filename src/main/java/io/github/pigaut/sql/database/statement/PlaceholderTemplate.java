@@ -0,0 +1,175 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.util.*;
+
+/**
+ * SQL with named placeholders written as {@code :name} or {@code {name}}, parsed once into literal and
+ * placeholder segments. Placeholders inside quoted text and comments are left untouched, and rendering is
+ * a single pass over the segments, with the most recent renders kept so equal inputs return the same string.
+ *
+ * <pre>
+ * {@code
+ * PlaceholderTemplate template = PlaceholderTemplate.compile("SELECT * FROM {shard}_players WHERE name = :name");
+ * String sql = template.render("shard", "eu", "name", "?");
+ * // SQL: "SELECT * FROM eu_players WHERE name = ?"
+ * }
+ * </pre>
+ */
+public final class PlaceholderTemplate {
+
+    private static final int MAX_CACHED_RENDERS = 256;
+
+    private final String sql;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final Set<String> placeholderNames;
+    private final Map<Map<String, String>, String> renders = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Map<String, String>, String> eldest) {
+            return size() > MAX_CACHED_RENDERS;
+        }
+    };
+
+    private PlaceholderTemplate(String sql, String[] literals, String[] placeholders) {
+        this.sql = sql;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.placeholderNames = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(placeholders)));
+    }
+
+    /**
+     * Parses the given sql into a reusable template.
+     *
+     * @param sql the sql with named placeholders.
+     * @return a new PlaceholderTemplate.
+     */
+    public static PlaceholderTemplate compile(String sql) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            int end = i + 1;
+            if (c == '\'' || c == '"' || c == '`') {
+                int close = sql.indexOf(c, i + 1);
+                end = close == -1 ? length : close + 1;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int close = sql.indexOf('\n', i);
+                end = close == -1 ? length : close + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int close = sql.indexOf("*/", i + 2);
+                end = close == -1 ? length : close + 2;
+            } else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(sql.charAt(i + 1))
+                    && (i == 0 || sql.charAt(i - 1) != ':')) {
+                int nameEnd = i + 2;
+                while (nameEnd < length && Character.isJavaIdentifierPart(sql.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(sql.substring(i + 1, nameEnd));
+                i = nameEnd;
+                continue;
+            } else if (c == '{') {
+                int close = sql.indexOf('}', i + 1);
+                if (close > i + 1 && isIdentifier(sql, i + 1, close)) {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    placeholders.add(sql.substring(i + 1, close));
+                    i = close + 1;
+                    continue;
+                }
+            }
+            literal.append(sql, i, end);
+            i = end;
+        }
+        literals.add(literal.toString());
+        return new PlaceholderTemplate(sql, literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    /**
+     * Gets the sql this template was compiled from.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Gets the names of the placeholders of this template, in order of first appearance.
+     */
+    public Set<String> getPlaceholders() {
+        return placeholderNames;
+    }
+
+    /**
+     * Renders the template with the given values.
+     *
+     * @param values the value of each placeholder by name.
+     * @return the rendered sql.
+     * @throws IllegalArgumentException if a placeholder has no value.
+     */
+    public String render(Map<String, String> values) {
+        String rendered;
+        synchronized (renders) {
+            rendered = renders.get(values);
+        }
+        if (rendered != null) {
+            return rendered;
+        }
+        int capacity = sql.length();
+        for (String placeholder : placeholders) {
+            String value = values.get(placeholder);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for placeholder: " + placeholder);
+            }
+            capacity += value.length();
+        }
+        StringBuilder builder = new StringBuilder(capacity);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]).append(values.get(placeholders[i]));
+        }
+        builder.append(literals[placeholders.length]);
+        rendered = builder.toString();
+        synchronized (renders) {
+            renders.putIfAbsent(Collections.unmodifiableMap(new HashMap<>(values)), rendered);
+        }
+        return rendered;
+    }
+
+    /**
+     * Renders the template with alternating placeholder names and values.
+     *
+     * @param namesAndValues pairs of placeholder name followed by its value.
+     * @return the rendered sql.
+     */
+    public String render(String... namesAndValues) {
+        if (namesAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected pairs of placeholder names and values");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            values.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return render(values);
+    }
+
+    private static boolean isIdentifier(String sql, int start, int end) {
+        if (!Character.isJavaIdentifierStart(sql.charAt(start))) {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            if (!Character.isJavaIdentifierPart(sql.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+}
@@ -0,0 +1,111 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Size bounded LRU cache of materialized query results with a time to live.
+ * Every invalidation bumps a version, so results of queries that started before a write are never stored.
+ */
+public class QueryCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<QueryKey, CachedResult> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long version = 0;
+
+    public QueryCache(long ttlMillis, int maxEntries) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Time to live and max entries must be positive");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QueryKey, CachedResult> eldest) {
+                return size() > QueryCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached result that has not expired.
+     *
+     * @param key the key of the query.
+     * @return the cached result, or null if absent or expired.
+     */
+    public Object get(QueryKey key) {
+        synchronized (entries) {
+            CachedResult entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.createdAt() < ttlNanos) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Gets the current version of the cache, to be passed to {@link #put(QueryKey, Object, long)}
+     * once the query completes.
+     */
+    public long getVersion() {
+        synchronized (entries) {
+            return version;
+        }
+    }
+
+    /**
+     * Caches the result of a query, unless the cache was invalidated since the query started.
+     *
+     * @param key     the key of the query.
+     * @param value   the materialized result.
+     * @param version the version of the cache read before executing the query.
+     */
+    public void put(QueryKey key, Object value, long version) {
+        synchronized (entries) {
+            if (this.version == version) {
+                entries.put(key, new CachedResult(value, System.nanoTime()));
+            }
+        }
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            version++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private record CachedResult(Object value, long createdAt) {}
+
+}
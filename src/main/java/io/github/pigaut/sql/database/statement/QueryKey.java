@@ -0,0 +1,31 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.util.*;
+
+/**
+ * Identifies the result of a query: its sql, bound parameter values, how the rows were read and the mapper used.
+ * Mappers are compared by identity, so cached results are only shared between calls using the same mapper instance.
+ */
+public record QueryKey(String sql, List<Object> parameters, String operation, Object mapper) {
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        return object instanceof QueryKey other
+                && mapper == other.mapper
+                && operation.equals(other.operation)
+                && sql.equals(other.sql)
+                && parameters.equals(other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = sql.hashCode();
+        hash = 31 * hash + parameters.hashCode();
+        hash = 31 * hash + operation.hashCode();
+        return 31 * hash + System.identityHashCode(mapper);
+    }
+
+}
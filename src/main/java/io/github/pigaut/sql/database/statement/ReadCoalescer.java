@@ -0,0 +1,98 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Shares one in-flight execution between concurrent identical reads. The first caller of a query runs it,
+ * and callers arriving with the same key before it finishes wait for its result instead of borrowing
+ * another connection. Disabled by default, results are shared as-is so they must not be modified.
+ */
+public class ReadCoalescer {
+
+    private final Map<Execution, CompletableFuture<Object>> executions = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private volatile boolean enabled = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables coalescing, reads already in flight are not affected.
+     *
+     * @param enabled whether identical concurrent reads share one execution.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the number of reads that ran against the database.
+     */
+    public long getExecutedReads() {
+        return executed.sum();
+    }
+
+    /**
+     * Gets the number of reads that joined an execution already in flight.
+     */
+    public long getCoalescedReads() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Runs the query, or waits for the result of an identical query already in flight.
+     *
+     * @param key   the key of the query.
+     * @param query executes the query and materializes its result.
+     * @return the result of the query.
+     */
+    public <T> T execute(QueryKey key, Supplier<T> query) {
+        return execute(key, 0, query);
+    }
+
+    /**
+     * Runs the query, or waits for the result of an identical query already in flight that was started
+     * with the same version, so a read arriving after an invalidation never joins one started before it.
+     *
+     * @param key     the key of the query.
+     * @param version the version of the data the result will be cached under, such as {@link QueryCache#getVersion()}.
+     * @param query   executes the query and materializes its result.
+     * @return the result of the query.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(QueryKey key, long version, Supplier<T> query) {
+        Execution executionKey = new Execution(key, version);
+        CompletableFuture<Object> execution = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = executions.putIfAbsent(executionKey, execution);
+        if (inFlight != null) {
+            coalesced.increment();
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        executed.increment();
+        try {
+            T result = query.get();
+            execution.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            executions.remove(executionKey, execution);
+        }
+    }
+
+    private record Execution(QueryKey key, long version) {}
+
+}
@@ -0,0 +1,129 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Maps rows to records through a method handle of the canonical constructor, created once per record class.
+ */
+public class RecordRowMapper<R extends Record> implements RowMapper<R> {
+
+    private static final ClassValue<RecordRowMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected RecordRowMapper<?> computeValue(Class<?> type) {
+            return new RecordRowMapper(type.asSubclass(Record.class));
+        }
+    };
+
+    private final Class<R> type;
+    private final RecordComponent[] components;
+    private final Class<?>[] componentTypes;
+    private final MethodHandle constructor;
+
+    public RecordRowMapper(Class<R> type) {
+        this.type = type;
+        this.components = type.getRecordComponents();
+        this.componentTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class[]::new);
+        try {
+            Constructor<R> canonicalConstructor = type.getDeclaredConstructor(componentTypes);
+            canonicalConstructor.setAccessible(true);
+            this.constructor = MethodHandles.lookup().unreflectConstructor(canonicalConstructor)
+                    .asSpreader(Object[].class, components.length);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot access the canonical constructor of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Gets the shared mapper of a record class. Sharing one instance per class lets query caches and read
+     * coalescing, which compare mappers by identity, match queries using mappers obtained separately.
+     *
+     * @param type the record class.
+     * @return the mapper of the record class.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R extends Record> RecordRowMapper<R> of(Class<R> type) {
+        return (RecordRowMapper<R>) MAPPERS.get(type);
+    }
+
+    @Override
+    public R map(ResultSet results) throws SQLException {
+        return forResults(results).map(results);
+    }
+
+    @Override
+    public RowMapper<R> forResults(ResultSet results) throws SQLException {
+        ResultSetMetaData metaData = results.getMetaData();
+        Map<String, Integer> columnsByLabel = new HashMap<>();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            columnsByLabel.putIfAbsent(metaData.getColumnLabel(column).toLowerCase(Locale.ROOT), column);
+        }
+        int[] columns = new int[components.length];
+        for (int i = 0; i < components.length; i++) {
+            String name = components[i].getName();
+            Integer column = columnsByLabel.get(name.toLowerCase(Locale.ROOT));
+            if (column == null) {
+                column = columnsByLabel.get(toSnakeCase(name));
+            }
+            if (column == null) {
+                throw new SQLException("No column found for component " + name + " of " + type.getSimpleName());
+            }
+            columns[i] = column;
+        }
+        return row -> {
+            Object[] arguments = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                arguments[i] = readColumn(row, columns[i], componentTypes[i]);
+            }
+            try {
+                return type.cast(constructor.invoke(arguments));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new SQLException(e.getMessage(), e);
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readColumn(ResultSet results, int column, Class<?> type) throws SQLException {
+        if (type == int.class) return results.getInt(column);
+        if (type == long.class) return results.getLong(column);
+        if (type == double.class) return results.getDouble(column);
+        if (type == float.class) return results.getFloat(column);
+        if (type == boolean.class) return results.getBoolean(column);
+        if (type == short.class) return results.getShort(column);
+        if (type == byte.class) return results.getByte(column);
+        if (type == char.class) {
+            String value = results.getString(column);
+            return value == null || value.isEmpty() ? '\0' : value.charAt(0);
+        }
+        if (type == String.class) return results.getString(column);
+        if (type == byte[].class) return results.getBytes(column);
+        if (type.isEnum()) {
+            String value = results.getString(column);
+            return value == null ? null : Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+        return results.getObject(column, type);
+    }
+
+    private static String toSnakeCase(String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    builder.append('_');
+                }
+                builder.append(Character.toLowerCase(c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+}
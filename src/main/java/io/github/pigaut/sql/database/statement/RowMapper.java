@@ -0,0 +1,72 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.sql.*;
+
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(ResultSet results) throws SQLException;
+
+    /**
+     * Prepares this mapper for a result set before its first row is mapped, so work such as resolving
+     * column labels to indexes happens once per result set instead of once per row.
+     *
+     * @param results the result set about to be read
+     * @return the mapper to use for every row of the result set
+     */
+    default RowMapper<T> forResults(ResultSet results) throws SQLException {
+        return this;
+    }
+
+    /**
+     * Creates a mapper that builds records through their canonical constructor, reading each component from
+     * the column with the same name (or its snake_case form), with labels resolved once per result set.
+     * The same mapper instance is returned for every call with the same record class.
+     *
+     * @param type the record class
+     * @param <R> the record type
+     * @return a RowMapper for the record
+     */
+    static <R extends Record> RowMapper<R> ofRecord(Class<R> type) {
+        return RecordRowMapper.of(type);
+    }
+
+    /**
+     * Creates a mapper that reads columns by index after resolving the given labels once per result set.
+     *
+     * @param mapper the mapper receiving the resolved index of each label, in the given order
+     * @param labels the column labels to resolve
+     * @param <T> the type of the mapped rows
+     * @return a RowMapper using the resolved indexes
+     *
+     * Example:
+     * <pre>
+     * {@code
+     * RowMapper<String> names = RowMapper.ofColumns((results, columns) -> results.getString(columns[0]), "name");
+     * }
+     * </pre>
+     */
+    static <T> RowMapper<T> ofColumns(IndexedRowMapper<T> mapper, String... labels) {
+        return new RowMapper<>() {
+            @Override
+            public T map(ResultSet results) throws SQLException {
+                return forResults(results).map(results);
+            }
+
+            @Override
+            public RowMapper<T> forResults(ResultSet results) throws SQLException {
+                int[] columns = new int[labels.length];
+                for (int i = 0; i < labels.length; i++) {
+                    columns[i] = results.findColumn(labels[i]);
+                }
+                return row -> mapper.map(row, columns);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface IndexedRowMapper<T> {
+        T map(ResultSet results, int[] columns) throws SQLException;
+    }
+
+}
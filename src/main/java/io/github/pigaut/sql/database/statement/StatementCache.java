@@ -0,0 +1,185 @@
+package io.github.pigaut.sql.database.statement;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * LRU cache of prepared statements keyed by sql, kept separately for each physical connection.
+ * Statements are prepared on the unwrapped driver connection so they outlive the pool handing out the connection,
+ * and a cached statement is taken out of the cache while in use so nested executions never share it.
+ * Statements given back after a {@link StatementOption} was applied are closed instead of cached, since an option
+ * may change any setting of the statement.
+ */
+public class StatementCache {
+
+    public static final int DEFAULT_SIZE = 64;
+
+    private final Map<Connection, Map<String, PreparedStatement>> connections = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile int maxSize;
+
+    public StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the maximum number of statements cached for each connection.
+     *
+     * @return the cache size, 0 if caching is disabled.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of statements cached for each connection, 0 disables caching.
+     * Statements already cached are closed.
+     *
+     * @param maxSize the new cache size.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets a prepared statement for the given sql, reusing a cached one when available.
+     * The statement must be given back with {@link #release(Connection, String, PreparedStatement)}.
+     *
+     * @param connection the connection borrowed to execute the statement.
+     * @param sql        the sql of the statement.
+     * @return a prepared statement with no parameters set.
+     * @throws SQLException if the statement could not be prepared.
+     */
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        if (maxSize <= 0) {
+            return connection.prepareStatement(sql);
+        }
+        Connection physicalConnection = unwrap(connection);
+        Map<String, PreparedStatement> statements = connections.get(physicalConnection);
+        if (statements != null) {
+            PreparedStatement statement;
+            synchronized (statements) {
+                statement = statements.remove(sql);
+            }
+            if (statement != null && !statement.isClosed()) {
+                hits.increment();
+                return statement;
+            }
+        }
+        misses.increment();
+        return physicalConnection.prepareStatement(sql);
+    }
+
+    /**
+     * Gives back a statement obtained from {@link #prepare(Connection, String)}, caching it if possible.
+     *
+     * @param connection the connection the statement was prepared for.
+     * @param sql        the sql of the statement.
+     * @param statement  the statement to release.
+     * @throws SQLException if the statement could not be closed.
+     */
+    public void release(Connection connection, String sql, PreparedStatement statement) throws SQLException {
+        release(connection, sql, statement, true);
+    }
+
+    /**
+     * Gives back a statement obtained from {@link #prepare(Connection, String)}, caching it if possible.
+     *
+     * @param connection the connection the statement was prepared for.
+     * @param sql        the sql of the statement.
+     * @param statement  the statement to release.
+     * @param reusable   false if settings beyond parameters, batch and fetch size may have changed, closing the statement.
+     * @throws SQLException if the statement could not be closed.
+     */
+    public void release(Connection connection, String sql, PreparedStatement statement, boolean reusable) throws SQLException {
+        int maxSize = this.maxSize;
+        Connection physicalConnection = maxSize > 0 && reusable ? unwrap(connection) : null;
+        if (physicalConnection == null || statement.getConnection() != physicalConnection || physicalConnection.isClosed()) {
+            statement.close();
+            return;
+        }
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.setFetchSize(0);
+        } catch (SQLException e) {
+            statement.close();
+            return;
+        }
+        Map<String, PreparedStatement> statements = connections.get(physicalConnection);
+        if (statements == null) {
+            purgeClosedConnections();
+            statements = connections.computeIfAbsent(physicalConnection, ignored -> new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= StatementCache.this.maxSize) {
+                        return false;
+                    }
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            });
+        }
+        boolean cached;
+        synchronized (statements) {
+            // a concurrent clear() may have detached the map, statements added to it would never be closed
+            cached = connections.get(physicalConnection) == statements && statements.putIfAbsent(sql, statement) == null;
+        }
+        if (!cached) {
+            statement.close();
+        }
+    }
+
+    /**
+     * Closes and removes every cached statement.
+     */
+    public void clear() {
+        for (Connection connection : connections.keySet()) {
+            Map<String, PreparedStatement> statements = connections.remove(connection);
+            if (statements != null) {
+                synchronized (statements) {
+                    statements.values().forEach(StatementCache::closeQuietly);
+                    statements.clear();
+                }
+            }
+        }
+    }
+
+    private void purgeClosedConnections() throws SQLException {
+        for (Connection connection : connections.keySet()) {
+            if (connection.isClosed()) {
+                connections.remove(connection);
+            }
+        }
+    }
+
+    private static Connection unwrap(Connection connection) throws SQLException {
+        return connection.isWrapperFor(Connection.class) ? connection.unwrap(Connection.class) : connection;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package io.github.pigaut.sql.database.table;
+
+public enum BackpressurePolicy {
+
+    /**
+     * Blocks the writing thread until the queue has room.
+     */
+    BLOCK,
+
+    /**
+     * Discards the new row and reports it as dropped.
+     */
+    DROP,
+
+    /**
+     * Flushes the queue on the writing thread, then queues the row.
+     */
+    CALLER_RUNS
+
+}
@@ -0,0 +1,196 @@
+package io.github.pigaut.sql.database.table;
+
+import java.math.*;
+import java.nio.*;
+import java.text.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Thread safe Bloom filter sized for an expected number of keys and false positive rate.
+ * Keys are hashed by a canonical form that is equal whenever the database could consider two keys equal:
+ * numbers by their plain decimal value (1, 1L, "1" and 1.0 alike), 16 byte arrays as the UUID they encode,
+ * other byte arrays by content, and text folded to lower case without accents or trailing spaces, as
+ * case and accent insensitive collations compare it. Folding only ever adds false positives. Once a key
+ * of any other type is added, such as a date, the filter can no longer rule out any key.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    private volatile boolean unhashable = false;
+
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0) {
+            throw new IllegalArgumentException("Expected keys must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * ln2));
+    }
+
+    /**
+     * Adds a key to the filter.
+     *
+     * @param key the key to add, null keys are ignored.
+     */
+    public void put(Object key) {
+        if (key == null) {
+            return;
+        }
+        String canonical = canonical(key);
+        if (canonical == null) {
+            unhashable = true;
+            return;
+        }
+        long hash = hash(canonical);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                word = words.get(index);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a key may have been added to the filter.
+     *
+     * @param key the key to check.
+     * @return false if the key was definitely never added, true if it may have been.
+     */
+    public boolean mightContain(Object key) {
+        if (key == null) {
+            return false;
+        }
+        String canonical = canonical(key);
+        if (canonical == null || unhashable) {
+            return true;
+        }
+        long hash = hash(canonical);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Gets the canonical form of a key, or null if keys of its type cannot be compared reliably outside the database.
+     */
+    private static String canonical(Object key) {
+        if (key instanceof String text) {
+            return canonicalText(text);
+        }
+        if (key instanceof Character character) {
+            return canonicalText(character.toString());
+        }
+        if (key instanceof Number number) {
+            return canonicalNumber(number);
+        }
+        if (key instanceof Boolean bool) {
+            return bool ? "1" : "0";
+        }
+        if (key instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        if (key instanceof byte[] bytes) {
+            if (bytes.length == 16) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                return new UUID(buffer.getLong(), buffer.getLong()).toString();
+            }
+            StringBuilder hex = new StringBuilder(2 + bytes.length * 2).append("0x");
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        }
+        return null;
+    }
+
+    private static String canonicalText(String text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+        text = text.substring(0, end);
+        if (!text.isEmpty() && (Character.isDigit(text.charAt(0)) || text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            try {
+                return canonicalNumber(new BigDecimal(text.trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                text = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+                break;
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static String canonicalNumber(Number number) {
+        BigDecimal decimal;
+        if (number instanceof BigDecimal value) {
+            decimal = value;
+        } else if (number instanceof BigInteger value) {
+            decimal = new BigDecimal(value);
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            decimal = BigDecimal.valueOf(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return null;
+            }
+            decimal = new BigDecimal(Double.toString(value));
+        } else {
+            try {
+                decimal = new BigDecimal(number.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString();
+    }
+
+    private static long hash(String text) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
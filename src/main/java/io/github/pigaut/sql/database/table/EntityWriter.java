@@ -0,0 +1,19 @@
+package io.github.pigaut.sql.database.table;
+
+/**
+ * Extracts the column values of an entity to persist it.
+ *
+ * @param <V> the type of entity.
+ */
+@FunctionalInterface
+public interface EntityWriter<V> {
+
+    /**
+     * Gets the values of the entity, in the order of the columns of its cache, excluding the key column.
+     *
+     * @param entity the entity to persist.
+     * @return the column values.
+     */
+    Object[] write(V entity);
+
+}
@@ -0,0 +1,148 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import java.util.function.*;
+
+public class GenericBulkInsert implements BulkInsert {
+
+    private final Database database;
+    private final int columns;
+    private final int rowsPerStatement;
+    private final IntFunction<String> sqlFactory;
+    private ParameterBuffer parameters;
+    private final Consumer<ParameterBuffer> writeListener;
+    private int pendingValues = 0;
+    private int pendingRows = 0;
+    private long insertedRows = 0;
+
+    public GenericBulkInsert(Database database, int columns, int rowsPerStatement, IntFunction<String> sqlFactory) {
+        this(database, columns, rowsPerStatement, sqlFactory, null);
+    }
+
+    public GenericBulkInsert(Database database, int columns, int rowsPerStatement, IntFunction<String> sqlFactory,
+                             Consumer<ParameterBuffer> writeListener) {
+        if (columns <= 0 || rowsPerStatement <= 0) {
+            throw new IllegalArgumentException("Bulk inserts need at least one column and one row per statement");
+        }
+        this.database = database;
+        this.columns = columns;
+        this.rowsPerStatement = rowsPerStatement;
+        this.sqlFactory = sqlFactory;
+        this.parameters = new ParameterBuffer(columns * rowsPerStatement);
+        this.writeListener = writeListener;
+    }
+
+    @Override
+    public int getRowsPerStatement() {
+        return rowsPerStatement;
+    }
+
+    @Override
+    public BulkInsert withNullParameter() {
+        parameters.addNull();
+        pendingValues++;
+        return this;
+    }
+
+    @Override
+    public BulkInsert withParameter(Object object) {
+        parameters.addObject(object);
+        pendingValues++;
+        return this;
+    }
+
+    @Override
+    public BulkInsert withParameter(String value) {
+        parameters.addString(value);
+        pendingValues++;
+        return this;
+    }
+
+    @Override
+    public BulkInsert withParameter(boolean value) {
+        parameters.addBoolean(value);
+        pendingValues++;
+        return this;
+    }
+
+    @Override
+    public BulkInsert withParameter(int value) {
+        parameters.addInt(value);
+        pendingValues++;
+        return this;
+    }
+
+    @Override
+    public BulkInsert withParameter(long value) {
+        parameters.addLong(value);
+        pendingValues++;
+        return this;
+    }
+
+    @Override
+    public BulkInsert withParameter(double value) {
+        parameters.addDouble(value);
+        pendingValues++;
+        return this;
+    }
+
+    @Override
+    public BulkInsert addRow() {
+        if (pendingValues != (pendingRows + 1) * columns) {
+            int rowValues = pendingValues - pendingRows * columns;
+            parameters.truncate(pendingRows * columns);
+            pendingValues = pendingRows * columns;
+            throw new IllegalStateException("Expected " + columns + " values per row but got " + rowValues
+                    + ", the row was discarded");
+        }
+        pendingRows++;
+        if (pendingRows == rowsPerStatement) {
+            flush();
+        }
+        return this;
+    }
+
+    @Override
+    public BulkInsert addRow(Object... values) {
+        // checked up front so a bad row never leaves half its values in the buffer
+        if (values.length != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " values per row but got " + values.length);
+        }
+        if (pendingValues != pendingRows * columns) {
+            throw new IllegalStateException("The current row already has values set one by one");
+        }
+        for (Object value : values) {
+            if (value == null) {
+                withNullParameter();
+            } else {
+                withParameter(value);
+            }
+        }
+        return addRow();
+    }
+
+    @Override
+    public long execute() {
+        flush();
+        return insertedRows;
+    }
+
+    private void flush() {
+        if (pendingRows == 0) {
+            return;
+        }
+        String sql = sqlFactory.apply(pendingRows);
+        ParameterBuffer rows = parameters;
+        // the next rows go to a new buffer: inside a transaction the listener only reads these ones after the
+        // commit, and a failed statement is not sent again by the next flush, its rows are dropped with the exception
+        parameters = new ParameterBuffer(columns * rowsPerStatement);
+        pendingValues = 0;
+        pendingRows = 0;
+        insertedRows += new GenericDatabaseStatement(database, sql, rows)
+                .withWriteListener(writeListener == null ? null : () -> writeListener.accept(rows))
+                .executeLargeUpdate();
+    }
+
+}
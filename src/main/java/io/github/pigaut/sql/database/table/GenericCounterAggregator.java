@@ -0,0 +1,148 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.logging.*;
+
+public class GenericCounterAggregator implements CounterAggregator {
+
+    private static final Logger LOGGER = Logger.getLogger(GenericCounterAggregator.class.getName());
+
+    private final GenericDataTable table;
+    private final String keyColumn;
+    private final Map<CounterKey, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> periodicFlush;
+    private final Runnable removeCloseHook;
+    private volatile boolean closed = false;
+
+    public GenericCounterAggregator(GenericDataTable table, String keyColumn, long flushIntervalMillis) {
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.table = table;
+        this.keyColumn = keyColumn;
+        Database database = table.getDatabase();
+        this.periodicFlush = database.getScheduler().scheduleWithFixedDelay(this::flushInBackground,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        this.removeCloseHook = database.addCloseHook(this::close);
+    }
+
+    @Override
+    public void increment(Object key, String column, long delta) {
+        if (closed) {
+            throw new IllegalStateException("Counter aggregator is closed");
+        }
+        add(new CounterKey(key, column), delta);
+    }
+
+    @Override
+    public void increment(Object key, String column) {
+        increment(key, column, 1);
+    }
+
+    @Override
+    public long getPending(Object key, String column) {
+        LongAdder counter = counters.get(new CounterKey(key, column));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    @Override
+    public synchronized void flush() {
+        Map<String, List<Map.Entry<Object, Long>>> deltasByColumn = new HashMap<>();
+        List<Map.Entry<CounterKey, LongAdder>> idleCounters = new ArrayList<>();
+        for (Map.Entry<CounterKey, LongAdder> counter : counters.entrySet()) {
+            long delta = counter.getValue().sumThenReset();
+            if (delta != 0) {
+                CounterKey key = counter.getKey();
+                deltasByColumn.computeIfAbsent(key.column(), column -> new ArrayList<>())
+                        .add(Map.entry(key.key(), delta));
+            } else {
+                idleCounters.add(counter);
+            }
+        }
+        removeIdle(idleCounters);
+        if (deltasByColumn.isEmpty()) {
+            return;
+        }
+        List<Object> missingKeys = new ArrayList<>();
+        try {
+            table.getDatabase().inTransaction(transaction -> {
+                for (Map.Entry<String, List<Map.Entry<Object, Long>>> column : deltasByColumn.entrySet()) {
+                    String columnName = column.getKey();
+                    String sql = table.setSql("WHERE " + keyColumn + " = ?", columnName + " = " + columnName + " + ?");
+                    DatabaseStatement statement = transaction.createStatement(sql);
+                    List<Map.Entry<Object, Long>> deltas = column.getValue();
+                    for (Map.Entry<Object, Long> delta : deltas) {
+                        statement.withParameter(delta.getValue().longValue())
+                                .withParameter(delta.getKey())
+                                .addBatch();
+                    }
+                    int[] updateCounts = statement.executeBatch();
+                    for (int i = 0; i < updateCounts.length; i++) {
+                        if (updateCounts[i] == 0) {
+                            missingKeys.add(deltas.get(i).getKey());
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            deltasByColumn.forEach((column, deltas) -> deltas.forEach(delta ->
+                    add(new CounterKey(delta.getKey(), column), delta.getValue())));
+            throw e;
+        }
+        if (!missingKeys.isEmpty()) {
+            LOGGER.warning("Dropped counter deltas of " + missingKeys.size() + " keys without a row in " + table.getName()
+                    + ": " + missingKeys);
+        }
+        table.notifyWrite();
+    }
+
+    /**
+     * Adds to a counter inside the map's compute, so it can never land in a counter {@link #removeIdle} just retired.
+     */
+    private void add(CounterKey key, long delta) {
+        counters.compute(key, (counterKey, counter) -> {
+            if (counter == null) {
+                counter = new LongAdder();
+            }
+            counter.add(delta);
+            return counter;
+        });
+    }
+
+    /**
+     * Removes counters that received no increment during a whole flush interval, so keys touched once do not
+     * stay in memory forever. A counter is only retired while it still holds nothing, checked under the same
+     * compute that increments go through.
+     */
+    private void removeIdle(List<Map.Entry<CounterKey, LongAdder>> idleCounters) {
+        for (Map.Entry<CounterKey, LongAdder> counter : idleCounters) {
+            counters.computeIfPresent(counter.getKey(), (counterKey, adder) -> adder.sum() == 0 ? null : adder);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        periodicFlush.cancel(false);
+        removeCloseHook.run();
+        flush();
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to flush counters, deltas will be retried", e);
+        }
+    }
+
+    private record CounterKey(Object key, String column) {}
+
+}
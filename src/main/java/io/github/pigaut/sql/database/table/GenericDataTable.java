@@ -3,16 +3,42 @@ package io.github.pigaut.sql.database.table;
 import io.github.pigaut.sql.*;
 import io.github.pigaut.sql.database.statement.*;
 
+import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.logging.*;
 
 public class GenericDataTable implements DataTable {
 
-    private String tableName;
+    private static final Logger LOGGER = Logger.getLogger(GenericDataTable.class.getName());
+
+    /**
+     * Upper bound of parameters in one statement, the MySQL protocol limit.
+     */
+    public static final int MAX_BULK_PARAMETERS = 65535;
+
+    /**
+     * Upper bound of rows in one multi-row INSERT statement.
+     */
+    public static final int MAX_BULK_ROWS = 500;
+
+    /**
+     * Upper bound of generated statements memoized per table, the least recently used are evicted beyond it.
+     */
+    public static final int MAX_CACHED_QUERIES = 512;
+
+    private volatile String tableName;
     private final Database database;
+    private volatile StatementMemo memo;
+    private final List<Runnable> writeListeners = new CopyOnWriteArrayList<>();
+    private final List<GenericKeyFilter> keyFilters = new CopyOnWriteArrayList<>();
+    private volatile QueryCache queryCache;
 
     public GenericDataTable(String tableName, Database database) {
         this.tableName = tableName;
         this.database = database;
+        this.memo = new StatementMemo(tableName, new ConcurrentHashMap<>());
     }
 
     @Override
@@ -43,6 +69,7 @@ public class GenericDataTable implements DataTable {
     public void drop() {
         String dropTableSQL = String.format(StatementTemplate.DROP_TABLE, tableName);
         database.execute(dropTableSQL);
+        notifyWrite();
     }
 
     @Override
@@ -50,97 +77,395 @@ public class GenericDataTable implements DataTable {
         String renameTableSQL = String.format(StatementTemplate.RENAME_TABLE, tableName, newName);
         database.execute(renameTableSQL);
         tableName = newName;
+        memo = new StatementMemo(newName, new ConcurrentHashMap<>());
+        notifyWrite();
     }
 
     @Override
     public void clear() {
         String deleteFromSQL = String.format(StatementTemplate.DELETE_ALL, tableName);
         database.executeUpdate(deleteFromSQL);
+        notifyWrite();
     }
 
     @Override
     public void addColumn(String columnDefinition) {
         String addColumnStmt = String.format(StatementTemplate.ADD_COLUMN, tableName, columnDefinition);
         database.execute(addColumnStmt);
+        notifyWrite();
     }
 
     @Override
     public void renameColumn(String oldName, String newName) {
         String renameColumnStmt = String.format(StatementTemplate.RENAME_COLUMN, tableName, oldName, newName);
         database.execute(renameColumnStmt);
+        notifyWrite();
     }
 
     @Override
     public DatabaseStatement insert(String clause) {
-        String sql = String.format(StatementTemplate.INSERT, tableName, clause);
-        return new GenericDatabaseStatement(database, sql);
+        return createStatement(Operation.INSERT, clause, 0);
     }
 
     @Override
     public DatabaseStatement insertInto(String... columns) {
-        String columnsDef = String.join(", ", columns);
-        String values = String.join(", ", Collections.nCopies(columns.length, "?"));
-        String insertIntoSQL = String.format(StatementTemplate.INSERT_COLUMNS, tableName, columnsDef, values);
-        return new GenericDatabaseStatement(database, insertIntoSQL);
+        return createStatement(Operation.INSERT_COLUMNS, null, 0, columns);
+    }
+
+    @Override
+    public BulkInsert bulkInsertInto(String... columns) {
+        int rowsPerStatement = Math.min(MAX_BULK_ROWS, MAX_BULK_PARAMETERS / Math.max(columns.length, 1));
+        return bulkInsertInto(rowsPerStatement, columns);
+    }
+
+    @Override
+    public BulkInsert bulkInsertInto(int rowsPerStatement, String... columns) {
+        List<String> columnList = List.of(columns);
+        return new GenericBulkInsert(database, columns.length, rowsPerStatement,
+                rows -> getQuery(new StatementShape(Operation.INSERT_ROWS, null, rows, columnList)),
+                parameters -> {
+                    notifyInserted(columnList, parameters::getParameterValues);
+                    notifyWrite();
+                });
+    }
+
+    @Override
+    public WriteBehindWriter writeBehind(String... columns) {
+        return writeBehind(500, 1000, 10000, BackpressurePolicy.CALLER_RUNS, columns);
+    }
+
+    @Override
+    public WriteBehindWriter writeBehind(int batchRows, long flushIntervalMillis, int capacity, BackpressurePolicy policy, String... columns) {
+        return new GenericWriteBehindWriter(this, batchRows, flushIntervalMillis, capacity, policy, columns);
+    }
+
+    @Override
+    public CounterAggregator counters(String keyColumn) {
+        return counters(keyColumn, 1000);
+    }
+
+    @Override
+    public CounterAggregator counters(String keyColumn, long flushIntervalMillis) {
+        return new GenericCounterAggregator(this, keyColumn, flushIntervalMillis);
+    }
+
+    @Override
+    public <K, V> EntityCache<K, V> entityCache(String keyColumn, RowMapper<V> mapper, EntityWriter<V> writer, String... columns) {
+        return entityCache(WriteMode.WRITE_BEHIND, 5000, 1800000, keyColumn, mapper, writer, columns);
+    }
+
+    @Override
+    public <K, V> EntityCache<K, V> entityCache(WriteMode writeMode, long flushIntervalMillis, long expireAfterAccessMillis,
+                                                String keyColumn, RowMapper<V> mapper, EntityWriter<V> writer, String... columns) {
+        return new GenericEntityCache<>(this, writeMode, flushIntervalMillis, expireAfterAccessMillis, keyColumn, mapper, writer, columns);
+    }
+
+    @Override
+    public QueryCache enableQueryCache(long ttlMillis, int maxEntries) {
+        QueryCache cache = new QueryCache(ttlMillis, maxEntries);
+        queryCache = cache;
+        return cache;
+    }
+
+    @Override
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    @Override
+    public void addWriteListener(Runnable listener) {
+        writeListeners.add(listener);
+    }
+
+    @Override
+    public void removeWriteListener(Runnable listener) {
+        writeListeners.remove(listener);
+    }
+
+    @Override
+    public <T> TableMirror<T> mirror(RowMapper<T> mapper) {
+        return new GenericTableMirror<>(this, mapper);
+    }
+
+    @Override
+    public KeyFilter keyFilter(String keyColumn) {
+        return keyFilter(keyColumn, 0.01);
+    }
+
+    @Override
+    public KeyFilter keyFilter(String keyColumn, double falsePositiveRate) {
+        return new GenericKeyFilter(this, keyColumn, falsePositiveRate);
+    }
+
+    @Override
+    public ParallelScan parallelScan(String keyColumn) {
+        return new GenericParallelScan(this, keyColumn);
+    }
+
+    @Override
+    public <T> PageCursor<T> paginate(RowMapper<T> mapper, int pageSize, String... keyColumns) {
+        return new GenericPageCursor<>(this, mapper, pageSize, keyColumns);
+    }
+
+    void addKeyFilter(GenericKeyFilter filter) {
+        keyFilters.add(filter);
+    }
+
+    void removeKeyFilter(GenericKeyFilter filter) {
+        keyFilters.remove(filter);
+    }
+
+    /**
+     * Adds the keys of inserted rows to the key filters of this table.
+     * The values are only read when the table has key filters.
+     *
+     * @param columns the columns of the inserted rows.
+     * @param values  supplies the values of every inserted row one after another, or null if they are unknown.
+     */
+    public void notifyInserted(List<String> columns, Supplier<List<Object>> values) {
+        if (keyFilters.isEmpty()) {
+            return;
+        }
+        List<Object> insertedValues = values.get();
+        for (GenericKeyFilter filter : keyFilters) {
+            filter.keysInserted(columns, insertedValues);
+        }
+    }
+
+    /**
+     * Invalidates the query cache of this table and runs its write listeners.
+     * Called after every write made through this table, once the write is committed, so listener failures
+     * are logged instead of thrown.
+     */
+    public void notifyWrite() {
+        QueryCache cache = queryCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        for (Runnable listener : writeListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Write listener of " + tableName + " failed", e);
+            }
+        }
     }
 
     @Override
     public DatabaseStatement insertAll(String... values) {
-        String valuesDef = String.join(", ", values);
-        String insertIntoSQL = String.format(StatementTemplate.INSERT_ALL, tableName, valuesDef);
-        return new GenericDatabaseStatement(database, insertIntoSQL);
+        return createStatement(Operation.INSERT_ALL, null, 0, values);
     }
 
     @Override
     public DatabaseStatement insertAll(int parameters) {
-        String values = String.join(", ", Collections.nCopies(parameters, "?"));
-        String insertIntoSQL = String.format(StatementTemplate.INSERT_ALL, tableName, values);
-        return new GenericDatabaseStatement(database, insertIntoSQL);
+        return createStatement(Operation.INSERT_PARAMETERS, null, parameters);
     }
 
     @Override
     public DatabaseStatement set(String clause, String... modifications) {
-        String modificationsDef = String.join(", ", modifications);
-        String updateSQL = String.format(StatementTemplate.SET_EACH, tableName, modificationsDef, clause);
-        return new GenericDatabaseStatement(database, updateSQL);
+        return createStatement(Operation.SET_EACH, clause, 0, modifications);
     }
 
     @Override
     public DatabaseStatement set(String clause) {
-        String updateSQL = String.format(StatementTemplate.SET, tableName, clause);
-        return new GenericDatabaseStatement(database, updateSQL);
+        return createStatement(Operation.SET, clause, 0);
+    }
+
+    @Override
+    public long update(String keyColumn, TrackedRow row) {
+        return update(keyColumn, List.of(row));
+    }
+
+    @Override
+    public long update(String keyColumn, Collection<TrackedRow> rows) {
+        Map<List<String>, List<TrackedRow>> rowsByColumns = new LinkedHashMap<>();
+        for (TrackedRow row : rows) {
+            if (row.isChanged()) {
+                rowsByColumns.computeIfAbsent(row.getChangedColumns(), columns -> new ArrayList<>()).add(row);
+            }
+        }
+        if (rowsByColumns.isEmpty()) {
+            return 0;
+        }
+        String keyClause = "WHERE " + keyColumn + " = ?";
+        long[] updateCount = {0};
+        database.inTransaction(transaction -> {
+            for (Map.Entry<List<String>, List<TrackedRow>> shape : rowsByColumns.entrySet()) {
+                List<String> columns = shape.getKey();
+                List<String> assignments = new ArrayList<>(columns.size());
+                for (String column : columns) {
+                    assignments.add(column + " = ?");
+                }
+                String sql = getQuery(new StatementShape(Operation.SET_EACH, keyClause, 0, assignments));
+                DatabaseStatement statement = transaction.createStatement(sql);
+                for (TrackedRow row : shape.getValue()) {
+                    for (String column : columns) {
+                        bindValue(statement, row.get(column));
+                    }
+                    bindValue(statement, row.getSaved(keyColumn));
+                    statement.addBatch();
+                }
+                for (long count : statement.executeLargeBatch()) {
+                    if (count == Statement.SUCCESS_NO_INFO || updateCount[0] == Statement.SUCCESS_NO_INFO) {
+                        updateCount[0] = Statement.SUCCESS_NO_INFO;
+                    } else if (count > 0) {
+                        updateCount[0] += count;
+                    }
+                }
+            }
+        });
+        Runnable committed = () -> {
+            rowsByColumns.values().forEach(shape -> shape.forEach(TrackedRow::markClean));
+            notifyWrite();
+        };
+        // joined transactions only commit later, rows stay dirty so a rollback leaves them to be sent again
+        if (database instanceof Transaction transaction) {
+            transaction.afterCommit(committed);
+        } else {
+            committed.run();
+        }
+        return updateCount[0];
     }
 
     @Override
     public DatabaseStatement delete(String clause) {
-        String deleteFromSQL = String.format(StatementTemplate.DELETE, tableName, clause);
-        return new GenericDatabaseStatement(database, deleteFromSQL);
+        return createStatement(Operation.DELETE, clause, 0);
     }
 
     @Override
     public DatabaseStatement select(String clause) {
-        String selectSQL = String.format(StatementTemplate.SELECT_ALL, tableName, clause);
-        return new GenericDatabaseStatement(database, selectSQL);
+        return createStatement(Operation.SELECT_ALL, clause, 0);
     }
 
     @Override
     public DatabaseStatement select(String clause, String... columns) {
-        String columnsDef = String.join(", ", columns);
-        String selectSQL = String.format(StatementTemplate.SELECT, columnsDef, tableName, clause);
-        return new GenericDatabaseStatement(database, selectSQL);
+        return createStatement(Operation.SELECT, clause, 0, columns);
     }
 
     @Override
     public DatabaseStatement selectAll() {
-        String selectSQL = String.format(StatementTemplate.SELECT_ALL, tableName, "");
-        return new GenericDatabaseStatement(database, selectSQL);
+        return createStatement(Operation.SELECT_ALL, "", 0);
     }
 
     @Override
     public DatabaseStatement selectAll(String... columns) {
-        String columnsDef = String.join(", ", columns);
-        String selectSQL = String.format(StatementTemplate.SELECT, columnsDef, tableName, "");
-        return new GenericDatabaseStatement(database, selectSQL);
+        return createStatement(Operation.SELECT, "", 0, columns);
+    }
+
+    private DatabaseStatement createStatement(Operation operation, String clause, int count, String... columns) {
+        String sql = getQuery(new StatementShape(operation, clause, count, List.of(columns)));
+        GenericDatabaseStatement statement = new GenericDatabaseStatement(database, sql);
+        if (operation == Operation.SELECT || operation == Operation.SELECT_ALL) {
+            QueryCache cache = queryCache;
+            return cache != null ? statement.withCache(cache) : statement;
+        }
+        return switch (operation) {
+            case INSERT_COLUMNS -> {
+                List<String> columnList = List.of(columns);
+                yield statement.withWriteListener(() -> {
+                    notifyInserted(columnList, statement.getParameters()::getParameterValues);
+                    notifyWrite();
+                });
+            }
+            case INSERT, INSERT_ALL, INSERT_PARAMETERS -> statement.withWriteListener(() -> {
+                notifyInserted(List.of(), () -> null);
+                notifyWrite();
+            });
+            default -> statement.withWriteListener(this::notifyWrite);
+        };
+    }
+
+    /**
+     * Gets the memoized sql of an update statement, without creating a statement.
+     */
+    String setSql(String clause, String... modifications) {
+        return getQuery(new StatementShape(Operation.SET_EACH, clause, 0, List.of(modifications)));
+    }
+
+    private String getQuery(StatementShape key) {
+        // a memo only holds sql generated for its own table name, so a rename just swaps in a fresh one
+        StatementMemo current = memo;
+        Map<StatementShape, MemoizedSql> queries = current.queries();
+        MemoizedSql memoized = queries.get(key);
+        if (memoized == null) {
+            if (queries.size() >= MAX_CACHED_QUERIES) {
+                evictLeastRecentlyUsed(queries);
+            }
+            memoized = queries.computeIfAbsent(key, shape -> new MemoizedSql(generateQuery(current.tableName(), shape)));
+        }
+        memoized.lastUse = System.nanoTime();
+        return memoized.sql;
+    }
+
+    /**
+     * Removes the statement used least recently, only scanned when a full memo misses.
+     */
+    private static void evictLeastRecentlyUsed(Map<StatementShape, MemoizedSql> queries) {
+        StatementShape eldest = null;
+        long eldestUse = Long.MAX_VALUE;
+        for (Map.Entry<StatementShape, MemoizedSql> entry : queries.entrySet()) {
+            long lastUse = entry.getValue().lastUse;
+            if (eldest == null || lastUse - eldestUse < 0) {
+                eldest = entry.getKey();
+                eldestUse = lastUse;
+            }
+        }
+        if (eldest != null) {
+            queries.remove(eldest);
+        }
+    }
+
+    private static String generateQuery(String tableName, StatementShape key) {
+        String clause = key.clause();
+        String columnsDef = String.join(", ", key.columns());
+        return switch (key.operation()) {
+            case INSERT -> String.format(StatementTemplate.INSERT, tableName, clause);
+            case INSERT_COLUMNS -> String.format(StatementTemplate.INSERT_COLUMNS, tableName, columnsDef, placeholders(key.columns().size()));
+            case INSERT_ROWS -> {
+                String row = "(" + placeholders(key.columns().size()) + ")";
+                String values = String.join(", ", Collections.nCopies(key.count(), row));
+                yield String.format(StatementTemplate.INSERT_ROWS, tableName, columnsDef, values);
+            }
+            case INSERT_ALL -> String.format(StatementTemplate.INSERT_ALL, tableName, columnsDef);
+            case INSERT_PARAMETERS -> String.format(StatementTemplate.INSERT_ALL, tableName, placeholders(key.count()));
+            case SET -> String.format(StatementTemplate.SET, tableName, clause);
+            case SET_EACH -> String.format(StatementTemplate.SET_EACH, tableName, columnsDef, clause);
+            case DELETE -> String.format(StatementTemplate.DELETE, tableName, clause);
+            case SELECT -> String.format(StatementTemplate.SELECT, columnsDef, tableName, clause);
+            case SELECT_ALL -> String.format(StatementTemplate.SELECT_ALL, tableName, clause);
+        };
+    }
+
+    private static void bindValue(DatabaseStatement statement, Object value) {
+        if (value == null) {
+            statement.withNullParameter();
+        } else {
+            statement.withParameter(value);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private enum Operation {
+        INSERT, INSERT_COLUMNS, INSERT_ROWS, INSERT_ALL, INSERT_PARAMETERS, SET, SET_EACH, DELETE, SELECT, SELECT_ALL
+    }
+
+    private record StatementShape(Operation operation, String clause, int count, List<String> columns) {}
+
+    private record StatementMemo(String tableName, Map<StatementShape, MemoizedSql> queries) {}
+
+    private static final class MemoizedSql {
+
+        private final String sql;
+        private long lastUse;
+
+        private MemoizedSql(String sql) {
+            this.sql = sql;
+            this.lastUse = System.nanoTime();
+        }
+
     }
 
-}
\ No newline at end of file
+}
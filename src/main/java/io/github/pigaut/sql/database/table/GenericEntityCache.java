@@ -0,0 +1,413 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
+import java.util.logging.*;
+
+/**
+ * Entity cache keyed by primary key. Each key maps to one of a fixed set of lock stripes, so loading,
+ * modifying and saving entities with different keys rarely contend, while a single key is never loaded twice.
+ * Keys being written by a flush are marked, and deleting, unloading or saving such a key waits for the write,
+ * so a flush never brings back a deleted row or overwrites a newer save.
+ */
+public class GenericEntityCache<K, V> implements EntityCache<K, V> {
+
+    private static final Logger LOGGER = Logger.getLogger(GenericEntityCache.class.getName());
+
+    /**
+     * Number of lock stripes, a power of two.
+     */
+    public static final int LOCK_STRIPES = 64;
+
+    private final GenericDataTable table;
+    private final Database database;
+    private final RowMapper<V> mapper;
+    private final EntityWriter<V> writer;
+    private final WriteMode writeMode;
+    private final String keyColumn;
+    private final int columns;
+    private final long expireAfterAccessNanos;
+    private final String selectSql;
+    private final String updateSql;
+    private final String insertSql;
+    private final String deleteSql;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    private final Condition[] flushDone = new Condition[LOCK_STRIPES];
+    private final Set<K> flushingKeys = ConcurrentHashMap.newKeySet();
+    private final ScheduledFuture<?> maintenance;
+    private final Runnable removeCloseHook;
+    private volatile boolean closed = false;
+
+    public GenericEntityCache(GenericDataTable table, WriteMode writeMode, long flushIntervalMillis, long expireAfterAccessMillis,
+                              String keyColumn, RowMapper<V> mapper, EntityWriter<V> writer, String... columns) {
+        if (flushIntervalMillis <= 0 || expireAfterAccessMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval and expiration time must be positive");
+        }
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("Entity caches need at least one column besides the key");
+        }
+        this.table = table;
+        this.database = table.getDatabase();
+        this.mapper = mapper;
+        this.writer = writer;
+        this.writeMode = writeMode;
+        this.keyColumn = keyColumn;
+        this.columns = columns.length;
+        this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterAccessMillis);
+        String keyClause = "WHERE " + keyColumn + " = ?";
+        String[] assignments = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            assignments[i] = columns[i] + " = ?";
+        }
+        String[] insertColumns = new String[columns.length + 1];
+        insertColumns[0] = keyColumn;
+        System.arraycopy(columns, 0, insertColumns, 1, columns.length);
+        this.selectSql = table.select(keyClause).getSql();
+        this.updateSql = table.set(keyClause, assignments).getSql();
+        this.insertSql = table.insertInto(insertColumns).getSql();
+        this.deleteSql = table.delete(keyClause).getSql();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            flushDone[i] = locks[i].newCondition();
+        }
+        this.maintenance = database.getScheduler().scheduleWithFixedDelay(this::runMaintenance,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        this.removeCloseHook = database.addCloseHook(this::close);
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            entry.touch();
+            return Optional.of(entry.value);
+        }
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            entry = load(key);
+            return entry == null ? Optional.empty() : Optional.of(entry.value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<V> getIfCached(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        entry.touch();
+        return Optional.of(entry.value);
+    }
+
+    @Override
+    public void put(K key, V entity) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry<V> entry = new Entry<>(entity);
+            entries.put(key, entry);
+            changed(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean modify(K key, Consumer<V> action) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry<V> entry = load(key);
+            if (entry == null) {
+                return false;
+            }
+            action.accept(entry.value);
+            changed(key, entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void markDirty(K key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                changed(key, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(K key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.dirty) {
+                persist(key, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void unload(K key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            awaitFlush(key);
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return;
+            }
+            if (entry.dirty) {
+                persist(key, entry);
+            }
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(K key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            awaitFlush(key);
+            entries.remove(key);
+            database.createStatement(deleteSql).withParameter(key).executeUpdate();
+            table.notifyWrite();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        List<K> keys = new ArrayList<>();
+        List<Entry<V>> flushed = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<K, Entry<V>> cached : entries.entrySet()) {
+            K key = cached.getKey();
+            Entry<V> entry = cached.getValue();
+            if (!entry.dirty) {
+                continue;
+            }
+            Lock lock = lockFor(key);
+            lock.lock();
+            try {
+                if (entry.dirty && entries.get(key) == entry && flushingKeys.add(key)) {
+                    rows.add(writer.write(entry.value));
+                    keys.add(key);
+                    flushed.add(entry);
+                    entry.dirty = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        boolean written = false;
+        try {
+            write(keys, rows);
+            written = true;
+        } finally {
+            for (int i = 0; i < keys.size(); i++) {
+                K key = keys.get(i);
+                Entry<V> entry = flushed.get(i);
+                int stripe = stripe(key);
+                locks[stripe].lock();
+                try {
+                    if (!written && entries.get(key) == entry) {
+                        entry.dirty = true;
+                    }
+                    flushingKeys.remove(key);
+                    flushDone[stripe].signalAll();
+                } finally {
+                    locks[stripe].unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public int getDirtyCount() {
+        int dirty = 0;
+        for (Entry<V> entry : entries.values()) {
+            if (entry.dirty) {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        maintenance.cancel(false);
+        removeCloseHook.run();
+        flush();
+    }
+
+    private Entry<V> load(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            entry.touch();
+            return entry;
+        }
+        Optional<V> entity = database.createStatement(selectSql).withParameter(key).fetchOne(mapper);
+        if (entity.isEmpty()) {
+            return null;
+        }
+        entry = new Entry<>(entity.get());
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private void changed(K key, Entry<V> entry) {
+        entry.dirty = true;
+        entry.touch();
+        if (writeMode == WriteMode.WRITE_THROUGH) {
+            persist(key, entry);
+        }
+    }
+
+    private void persist(K key, Entry<V> entry) {
+        awaitFlush(key);
+        write(List.of(key), List.<Object[]>of(writer.write(entry.value)));
+        entry.dirty = false;
+    }
+
+    private void write(List<K> keys, List<Object[]> rows) {
+        List<Object> insertedKeys = new ArrayList<>();
+        database.inTransaction(transaction -> {
+            DatabaseStatement update = transaction.createStatement(updateSql);
+            for (int i = 0; i < keys.size(); i++) {
+                bind(update, rows.get(i)).withParameter(keys.get(i)).addBatch();
+            }
+            int[] updateCounts = update.executeBatch();
+            DatabaseStatement insert = null;
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] == 0) {
+                    if (insert == null) {
+                        insert = transaction.createStatement(insertSql);
+                    }
+                    bind(insert.withParameter(keys.get(i)), rows.get(i)).addBatch();
+                    insertedKeys.add(keys.get(i));
+                }
+            }
+            if (insert != null) {
+                insert.executeBatch();
+            }
+        });
+        if (!insertedKeys.isEmpty()) {
+            table.notifyInserted(List.of(keyColumn), () -> insertedKeys);
+        }
+        table.notifyWrite();
+    }
+
+    private DatabaseStatement bind(DatabaseStatement statement, Object[] values) {
+        if (values.length != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " values but got " + values.length);
+        }
+        for (Object value : values) {
+            if (value == null) {
+                statement.withNullParameter();
+            } else {
+                statement.withParameter(value);
+            }
+        }
+        return statement;
+    }
+
+    private void runMaintenance() {
+        if (writeMode == WriteMode.WRITE_BEHIND) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to save dirty entities, they will be retried", e);
+                return;
+            }
+        }
+        long now = System.nanoTime();
+        for (Map.Entry<K, Entry<V>> cached : entries.entrySet()) {
+            Entry<V> entry = cached.getValue();
+            if (entry.dirty || now - entry.lastAccess < expireAfterAccessNanos) {
+                continue;
+            }
+            K key = cached.getKey();
+            Lock lock = lockFor(key);
+            lock.lock();
+            try {
+                if (!entry.dirty && !flushingKeys.contains(key) && now - entry.lastAccess >= expireAfterAccessNanos) {
+                    entries.remove(key, entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits until no flush is writing the key, called with the lock of the key held.
+     */
+    private void awaitFlush(K key) {
+        Condition condition = flushDone[stripe(key)];
+        while (flushingKeys.contains(key)) {
+            condition.awaitUninterruptibly();
+        }
+    }
+
+    private Lock lockFor(K key) {
+        return locks[stripe(key)];
+    }
+
+    private int stripe(K key) {
+        int hash = Objects.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private volatile boolean dirty = false;
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(V value) {
+            this.value = value;
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+    }
+
+}
@@ -0,0 +1,213 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+import java.util.logging.*;
+import java.util.stream.*;
+
+/**
+ * Bloom filter over the key column of a table. Keys inserted through the table are added as they are written,
+ * inserts whose keys cannot be read from their parameters make the filter stale until a background rebuild,
+ * and the filter is rebuilt larger once more keys were added than it was sized for.
+ */
+public class GenericKeyFilter implements KeyFilter {
+
+    private static final Logger LOGGER = Logger.getLogger(GenericKeyFilter.class.getName());
+    private static final RowMapper<Boolean> EXISTS = results -> true;
+    private static final int MIN_EXPECTED_KEYS = 1024;
+    private static final int SCAN_FETCH_SIZE = 1000;
+    /**
+     * Minimum pause between the end of a rebuild and the start of the next automatic one, so tables that keep
+     * receiving raw inserts are not scanned back to back.
+     */
+    private static final long MIN_REBUILD_INTERVAL_MILLIS = 5000;
+
+    private final GenericDataTable table;
+    private final String keyColumn;
+    private final double falsePositiveRate;
+    private final String existsSql;
+    private final String scanSql;
+    private final String countSql;
+    private final AtomicLong staleVersion = new AtomicLong();
+    private final LongAdder addedKeys = new LongAdder();
+    private final LongAdder skippedQueries = new LongAdder();
+    private final Object rebuildLock = new Object();
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile long builtVersion;
+    private volatile long expectedKeys;
+    private volatile long lastRebuildNanos;
+    private volatile long lastRebuildDurationNanos;
+    private CompletableFuture<Void> rebuilding;
+
+    public GenericKeyFilter(GenericDataTable table, String keyColumn, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.falsePositiveRate = falsePositiveRate;
+        this.existsSql = table.select("WHERE " + keyColumn + " = ?", "1").getSql();
+        this.scanSql = table.selectAll(keyColumn).getSql();
+        this.countSql = table.selectAll("COUNT(*)").getSql();
+        this.lastRebuildNanos = System.nanoTime();
+        table.addKeyFilter(this);
+        rebuild();
+    }
+
+    @Override
+    public boolean mightExist(Object key) {
+        return isStale() || filter.mightContain(key);
+    }
+
+    @Override
+    public boolean exists(Object key) {
+        if (!mightExist(key)) {
+            skippedQueries.increment();
+            return false;
+        }
+        return table.getDatabase().createStatement(existsSql).withParameter(key).fetchOne(EXISTS).isPresent();
+    }
+
+    @Override
+    public void add(Object key) {
+        Lock lock = swapLock.readLock();
+        lock.lock();
+        try {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(key);
+            }
+            BloomFilter next = building;
+            if (next != null) {
+                next.put(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        addedKeys.increment();
+        if (addedKeys.sum() > expectedKeys) {
+            rebuildAsync();
+        }
+    }
+
+    @Override
+    public boolean isStale() {
+        return staleVersion.get() != builtVersion;
+    }
+
+    @Override
+    public long getSkippedQueries() {
+        return skippedQueries.sum();
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Database database = table.getDatabase();
+        long version = staleVersion.get();
+        long rows = database.createStatement(countSql).fetchOne(results -> results.getLong(1)).orElse(0L);
+        long keys = Math.max(MIN_EXPECTED_KEYS, rows * 2);
+        BloomFilter next = new BloomFilter(keys, falsePositiveRate);
+        building = next;
+        try {
+            try (Stream<Object> scan = database.createStatement(scanSql)
+                    .withFetchSize(SCAN_FETCH_SIZE)
+                    .stream(results -> results.getObject(1))) {
+                scan.forEach(next::put);
+            }
+            Lock lock = swapLock.writeLock();
+            lock.lock();
+            try {
+                addedKeys.reset();
+                expectedKeys = keys - rows;
+                filter = next;
+                builtVersion = version;
+                building = null;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            building = null;
+            lastRebuildNanos = System.nanoTime();
+            lastRebuildDurationNanos = lastRebuildNanos - start;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> rebuildAsync() {
+        return rebuildAsync(false);
+    }
+
+    private CompletableFuture<Void> rebuildAsync(boolean throttled) {
+        synchronized (rebuildLock) {
+            if (rebuilding == null) {
+                CompletableFuture<Void> future = scheduleRebuild(throttled);
+                rebuilding = future;
+                future.exceptionally(e -> {
+                    synchronized (rebuildLock) {
+                        if (rebuilding == future) {
+                            rebuilding = null;
+                        }
+                    }
+                    LOGGER.log(Level.WARNING, "Failed to rebuild key filter of " + table.getName(), e);
+                    return null;
+                });
+            }
+            return rebuilding;
+        }
+    }
+
+    @Override
+    public void close() {
+        table.removeKeyFilter(this);
+    }
+
+    /**
+     * Rebuilds the filter, and again until it is fresh. Throttled rebuilds first wait for the minimum interval since
+     * the last rebuild, which grows with the duration of the last scan so scanning never takes more than half the time.
+     */
+    private CompletableFuture<Void> scheduleRebuild(boolean throttled) {
+        long interval = Math.max(TimeUnit.MILLISECONDS.toNanos(MIN_REBUILD_INTERVAL_MILLIS), lastRebuildDurationNanos);
+        long delayNanos = throttled ? Math.max(0, lastRebuildNanos + interval - System.nanoTime()) : 0;
+        Executor executor = CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, table.getDatabase().getExecutor());
+        return CompletableFuture.runAsync(this::rebuild, executor).thenCompose(ignored -> {
+            synchronized (rebuildLock) {
+                if (!isStale()) {
+                    rebuilding = null;
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+            return scheduleRebuild(true);
+        });
+    }
+
+    void keysInserted(List<String> columns, List<Object> values) {
+        int keyIndex = -1;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).equalsIgnoreCase(keyColumn)) {
+                keyIndex = i;
+                break;
+            }
+        }
+        if (keyIndex == -1 || values == null) {
+            markStale();
+            return;
+        }
+        for (int i = keyIndex; i < values.size(); i += columns.size()) {
+            add(values.get(i));
+        }
+    }
+
+    void markStale() {
+        staleVersion.incrementAndGet();
+        rebuildAsync(true);
+    }
+
+}
@@ -0,0 +1,143 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+public class GenericPageCursor<T> implements PageCursor<T> {
+
+    private final Database database;
+    private final RowMapper<T> mapper;
+    private final int pageSize;
+    private final String[] keyColumns;
+    private final String firstPageSql;
+    private final String nextPageSql;
+    private Object[] lastKey;
+    private List<T> nextPage;
+    private Object[] nextPageLastKey;
+    private boolean exhausted;
+
+    public GenericPageCursor(GenericDataTable table, RowMapper<T> mapper, int pageSize, String... keyColumns) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        if (keyColumns.length == 0) {
+            throw new IllegalArgumentException("Keyset pagination needs at least one key column");
+        }
+        this.database = table.getDatabase();
+        this.mapper = mapper;
+        this.pageSize = pageSize;
+        this.keyColumns = keyColumns.clone();
+        String orderBy = "ORDER BY " + String.join(", ", keyColumns) + " LIMIT ?";
+        this.firstPageSql = table.select(orderBy).getSql();
+        this.nextPageSql = table.select("WHERE " + afterKeyCondition(0) + " " + orderBy).getSql();
+    }
+
+    /**
+     * Builds the condition matching rows whose key sorts after the last key, from the given key column on.
+     * The leading column is bounded with {@code >=} so the database can seek the index instead of scanning it.
+     */
+    private String afterKeyCondition(int column) {
+        String key = keyColumns[column];
+        if (column == keyColumns.length - 1) {
+            return key + " > ?";
+        }
+        return key + " >= ? AND (" + key + " > ? OR " + afterKeyCondition(column + 1) + ")";
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public Object[] getLastKey() {
+        return lastKey != null ? lastKey.clone() : null;
+    }
+
+    @Override
+    public PageCursor<T> startAfter(Object... key) {
+        if (key.length != keyColumns.length) {
+            throw new IllegalArgumentException("Expected " + keyColumns.length + " key values but got " + key.length);
+        }
+        lastKey = key.clone();
+        nextPage = null;
+        nextPageLastKey = null;
+        exhausted = false;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextPage == null && !exhausted) {
+            nextPage = fetchPage();
+            if (nextPage.isEmpty()) {
+                exhausted = true;
+            }
+        }
+        return nextPage != null && !nextPage.isEmpty();
+    }
+
+    @Override
+    public List<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<T> page = nextPage;
+        lastKey = nextPageLastKey;
+        nextPage = null;
+        nextPageLastKey = null;
+        return page;
+    }
+
+    @Override
+    public Stream<List<T>> pages() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public Stream<T> rows() {
+        return pages().flatMap(List::stream);
+    }
+
+    private List<T> fetchPage() {
+        DatabaseStatement statement;
+        if (lastKey == null) {
+            statement = database.createStatement(firstPageSql);
+        } else {
+            statement = database.createStatement(nextPageSql);
+            for (int i = 0; i < keyColumns.length; i++) {
+                statement.withParameter(lastKey[i]);
+                if (i < keyColumns.length - 1) {
+                    statement.withParameter(lastKey[i]);
+                }
+            }
+        }
+        List<T> page = new ArrayList<>(pageSize);
+        Object[] pageLastKey = new Object[keyColumns.length];
+        statement.withParameter(pageSize).withFetchSize(pageSize).executeQuery(results -> {
+            RowMapper<T> rowMapper = mapper.forResults(results);
+            int[] keyIndexes = new int[keyColumns.length];
+            for (int i = 0; i < keyColumns.length; i++) {
+                keyIndexes[i] = results.findColumn(keyColumns[i]);
+            }
+            while (results.next()) {
+                page.add(rowMapper.map(results));
+                for (int i = 0; i < keyIndexes.length; i++) {
+                    pageLastKey[i] = results.getObject(keyIndexes[i]);
+                }
+            }
+        });
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        // only becomes the last key once the page is handed out by next()
+        if (!page.isEmpty()) {
+            nextPageLastKey = pageLastKey;
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+}
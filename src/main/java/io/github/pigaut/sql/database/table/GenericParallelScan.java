@@ -0,0 +1,240 @@
+package io.github.pigaut.sql.database.table;
+
+import com.zaxxer.hikari.*;
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+public class GenericParallelScan implements ParallelScan {
+
+    /**
+     * Rows fetched per round trip when no fetch size is set.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final GenericDataTable table;
+    private final String keyColumn;
+    private String[] columns = new String[0];
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ScanPartitioning partitioning = ScanPartitioning.MIN_MAX;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    public GenericParallelScan(GenericDataTable table, String keyColumn) {
+        this.table = table;
+        this.keyColumn = keyColumn;
+    }
+
+    @Override
+    public ParallelScan columns(String... columns) {
+        this.columns = columns.clone();
+        return this;
+    }
+
+    @Override
+    public ParallelScan parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    @Override
+    public ParallelScan partitioning(ScanPartitioning partitioning) {
+        this.partitioning = Objects.requireNonNull(partitioning);
+        return this;
+    }
+
+    @Override
+    public ParallelScan fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    @Override
+    public int getParallelism() {
+        Database database = table.getDatabase();
+        if (database instanceof Transaction) {
+            return 1;
+        }
+        if (database.getDataSource() instanceof HikariDataSource dataSource) {
+            return Math.min(parallelism, dataSource.getMaximumPoolSize());
+        }
+        return parallelism;
+    }
+
+    @Override
+    public <T> void forEach(RowMapper<T> mapper, Consumer<? super T> consumer) {
+        List<Range> ranges = split(getParallelism());
+        if (ranges.size() == 1) {
+            scanRange(ranges.get(0), mapper, consumer, new AtomicBoolean());
+            return;
+        }
+        // a failed range stops the others at their next row, and every range finishes before forEach returns,
+        // so no connection stays borrowed and the consumer is never called after the failure is thrown
+        AtomicBoolean stopped = new AtomicBoolean();
+        ForkJoinPool pool = new ForkJoinPool(ranges.size());
+        Throwable failure = null;
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(ranges.size());
+            for (Range range : ranges) {
+                tasks.add(pool.submit(() -> {
+                    try {
+                        scanRange(range, mapper, consumer, stopped);
+                    } catch (RuntimeException | Error e) {
+                        stopped.set(true);
+                        throw e;
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                try {
+                    task.join();
+                } catch (RuntimeException | Error e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (failure instanceof RuntimeException runtimeFailure) {
+            throw runtimeFailure;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+    }
+
+    @Override
+    public <T> Stream<T> stream(RowMapper<T> mapper) {
+        return split(getParallelism()).parallelStream().flatMap(range -> openRange(range, mapper));
+    }
+
+    private <T> void scanRange(Range range, RowMapper<T> mapper, Consumer<? super T> consumer, AtomicBoolean stopped) {
+        if (stopped.get()) {
+            return;
+        }
+        try (Stream<T> rows = openRange(range, mapper)) {
+            Iterator<T> iterator = rows.iterator();
+            while (!stopped.get() && iterator.hasNext()) {
+                consumer.accept(iterator.next());
+            }
+        }
+    }
+
+    private <T> Stream<T> openRange(Range range, RowMapper<T> mapper) {
+        DatabaseStatement statement = table.getDatabase().createStatement(select(range.clause())).withFetchSize(fetchSize);
+        for (Object bound : range.bounds()) {
+            statement.withParameter(bound);
+        }
+        return statement.stream(mapper);
+    }
+
+    private String select(String clause) {
+        return columns.length == 0 ? table.select(clause).getSql() : table.select(clause, columns).getSql();
+    }
+
+    /**
+     * Splits the key column into consecutive ranges covering every row, rows with a null key included.
+     */
+    private List<Range> split(int partitions) {
+        List<Object> boundaries = partitions <= 1 ? List.of() : switch (partitioning) {
+            case MIN_MAX -> {
+                List<Object> widthBoundaries = minMaxBoundaries(partitions);
+                yield widthBoundaries != null ? widthBoundaries : sampledBoundaries(partitions);
+            }
+            case SAMPLED -> sampledBoundaries(partitions);
+        };
+        if (boundaries.isEmpty()) {
+            return List.of(new Range("", List.of()));
+        }
+        List<Range> ranges = new ArrayList<>(boundaries.size() + 1);
+        ranges.add(new Range("WHERE " + keyColumn + " < ? OR " + keyColumn + " IS NULL", List.of(boundaries.get(0))));
+        for (int i = 1; i < boundaries.size(); i++) {
+            ranges.add(new Range("WHERE " + keyColumn + " >= ? AND " + keyColumn + " < ?",
+                    List.of(boundaries.get(i - 1), boundaries.get(i))));
+        }
+        ranges.add(new Range("WHERE " + keyColumn + " >= ?", List.of(boundaries.get(boundaries.size() - 1))));
+        return ranges;
+    }
+
+    /**
+     * Gets the boundaries splitting the keys into ranges of equal width.
+     *
+     * @return the boundaries, or null if the keys are not integers.
+     */
+    private List<Object> minMaxBoundaries(int partitions) {
+        String sql = table.selectAll("MIN(" + keyColumn + ")", "MAX(" + keyColumn + ")").getSql();
+        Object[] minMax = table.getDatabase().createStatement(sql)
+                .fetchOne(results -> new Object[]{results.getObject(1), results.getObject(2)})
+                .orElseThrow();
+        if (minMax[0] == null || minMax[1] == null) {
+            return List.of();
+        }
+        if (!isIntegral(minMax[0]) || !isIntegral(minMax[1])) {
+            return null;
+        }
+        long first = ((Number) minMax[0]).longValue();
+        long last = ((Number) minMax[1]).longValue();
+        BigInteger min = BigInteger.valueOf(first);
+        BigInteger width = BigInteger.valueOf(last).subtract(min).add(BigInteger.ONE);
+        List<Object> boundaries = new ArrayList<>(partitions - 1);
+        long previous = first;
+        for (int i = 1; i < partitions; i++) {
+            long boundary = min.add(width.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(partitions))).longValue();
+            if (boundary > previous) {
+                boundaries.add(boundary);
+                previous = boundary;
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Gets the boundaries splitting the keys into ranges with the same number of rows. Each boundary is found
+     * by seeking past the previous one, so the key index is walked once in total rather than from the start
+     * for every boundary.
+     */
+    private List<Object> sampledBoundaries(int partitions) {
+        Database database = table.getDatabase();
+        String countSql = table.selectAll("COUNT(" + keyColumn + ")").getSql();
+        long rows = database.createStatement(countSql).fetchOne(results -> results.getLong(1)).orElse(0L);
+        if (rows < partitions) {
+            return List.of();
+        }
+        String orderBy = " ORDER BY " + keyColumn + " LIMIT 1 OFFSET ?";
+        String firstSql = table.select("WHERE " + keyColumn + " IS NOT NULL" + orderBy, keyColumn).getSql();
+        String nextSql = table.select("WHERE " + keyColumn + " > ?" + orderBy, keyColumn).getSql();
+        long step = rows / partitions;
+        List<Object> boundaries = new ArrayList<>(partitions - 1);
+        Optional<Object> boundary = database.createStatement(firstSql).withParameter(step)
+                .fetchOne(results -> results.getObject(1));
+        while (boundary.isPresent()) {
+            boundaries.add(boundary.get());
+            if (boundaries.size() == partitions - 1) {
+                break;
+            }
+            boundary = database.createStatement(nextSql).withParameter(boundary.get()).withParameter(step - 1)
+                    .fetchOne(results -> results.getObject(1));
+        }
+        return boundaries;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private record Range(String clause, List<Object> bounds) {
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import java.util.*;
+import java.util.function.*;
+
+public class GenericShardedTable implements ShardedTable {
+
+    private final ShardedDatabase database;
+    private final String tableName;
+    private final Map<Database, DataTable> tables = new IdentityHashMap<>();
+
+    public GenericShardedTable(ShardedDatabase database, String tableName) {
+        this.database = database;
+        this.tableName = tableName;
+        for (Database shard : database.getShards()) {
+            tables.put(shard, shard.tableOf(tableName));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return tableName;
+    }
+
+    @Override
+    public DataTable shard(Object shardKey) {
+        return tables.get(database.shardFor(shardKey));
+    }
+
+    @Override
+    public List<DataTable> getShardTables() {
+        List<DataTable> shardTables = new ArrayList<>(tables.size());
+        for (Database shard : database.getShards()) {
+            shardTables.add(tables.get(shard));
+        }
+        return shardTables;
+    }
+
+    @Override
+    public void createIfNotExists(String... columns) {
+        database.scatter(shard -> {
+            tables.get(shard).createIfNotExists(columns);
+            return null;
+        });
+    }
+
+    @Override
+    public <T> List<T> fetchAll(Function<DataTable, DatabaseStatement> query, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        for (List<T> shardRows : database.scatter(shard -> query.apply(tables.get(shard)).fetchAll(mapper))) {
+            rows.addAll(shardRows);
+        }
+        return rows;
+    }
+
+    @Override
+    public <T> List<T> fetchAll(Function<DataTable, DatabaseStatement> query, RowMapper<T> mapper, Comparator<? super T> order) {
+        List<List<T>> shardRows = database.scatter(shard -> query.apply(tables.get(shard)).fetchAll(mapper));
+        int size = 0;
+        for (List<T> rows : shardRows) {
+            size += rows.size();
+        }
+        List<T> merged = new ArrayList<>(size);
+        PriorityQueue<MergeHead<T>> heads = new PriorityQueue<>(Math.max(1, shardRows.size()), (first, second) -> order.compare(first.row(), second.row()));
+        for (List<T> rows : shardRows) {
+            Iterator<T> iterator = rows.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new MergeHead<>(iterator.next(), iterator));
+            }
+        }
+        while (!heads.isEmpty()) {
+            MergeHead<T> head = heads.poll();
+            merged.add(head.row());
+            if (head.rest().hasNext()) {
+                heads.add(new MergeHead<>(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public long executeUpdate(Function<DataTable, DatabaseStatement> update) {
+        long updateCount = 0;
+        for (long shardCount : database.scatter(shard -> update.apply(tables.get(shard)).executeLargeUpdate())) {
+            updateCount += shardCount;
+        }
+        return updateCount;
+    }
+
+    private record MergeHead<T>(T row, Iterator<T> rest) {}
+
+}
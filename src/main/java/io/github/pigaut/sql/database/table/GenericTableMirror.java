@@ -0,0 +1,190 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.logging.*;
+
+/**
+ * Full copy of a table kept in memory as an immutable snapshot with its indexes.
+ * Lookups read the current snapshot without locking, and reloads build a new snapshot
+ * and publish it at once, so readers never see a partially updated mirror. Writes schedule a reload on the
+ * database scheduler after a short delay, and writes made before it starts share it. Rows are always loaded
+ * from the primary connection, so a lagging replica never overwrites a newer snapshot.
+ */
+public class GenericTableMirror<T> implements TableMirror<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(GenericTableMirror.class.getName());
+
+    /**
+     * Delay between a write and the reload it schedules, during which further writes are coalesced.
+     */
+    public static final long RELOAD_DELAY_MILLIS = 50;
+
+    private final GenericDataTable table;
+    private final RowMapper<T> mapper;
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+    private final AtomicLong writeVersion = new AtomicLong();
+    private final Runnable writeListener = this::onWrite;
+    private final Map<String, Function<T, ?>> hashIndexes = new LinkedHashMap<>();
+    private final Map<String, Function<T, ? extends Comparable<?>>> sortedIndexes = new LinkedHashMap<>();
+    private volatile Snapshot<T> snapshot;
+    private volatile long loadedVersion;
+
+    public GenericTableMirror(GenericDataTable table, RowMapper<T> mapper) {
+        this.table = table;
+        this.mapper = mapper;
+        this.snapshot = buildSnapshot(loadRows());
+        table.addWriteListener(writeListener);
+    }
+
+    @Override
+    public DataTable getTable() {
+        return table;
+    }
+
+    @Override
+    public synchronized TableMirror<T> addHashIndex(String name, Function<T, ?> key) {
+        checkIndexName(name);
+        hashIndexes.put(name, key);
+        snapshot = buildSnapshot(snapshot.rows());
+        return this;
+    }
+
+    @Override
+    public synchronized TableMirror<T> addSortedIndex(String name, Function<T, ? extends Comparable<?>> key) {
+        checkIndexName(name);
+        sortedIndexes.put(name, key);
+        snapshot = buildSnapshot(snapshot.rows());
+        return this;
+    }
+
+    @Override
+    public List<T> getAll() {
+        return snapshot.rows();
+    }
+
+    @Override
+    public List<T> get(String index, Object key) {
+        Snapshot<T> snapshot = this.snapshot;
+        Map<Object, List<T>> hashIndex = snapshot.hashIndexes().get(index);
+        Map<Object, List<T>> keyIndex = hashIndex != null ? hashIndex : snapshot.sortedIndexes().get(index);
+        if (keyIndex == null) {
+            throw new IllegalArgumentException("Unknown index: " + index);
+        }
+        return key == null ? List.of() : keyIndex.getOrDefault(key, List.of());
+    }
+
+    @Override
+    public Optional<T> getFirst(String index, Object key) {
+        List<T> rows = get(index, key);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    @Override
+    public List<T> getRange(String index, Object from, Object to) {
+        NavigableMap<Object, List<T>> sortedIndex = snapshot.sortedIndexes().get(index);
+        if (sortedIndex == null) {
+            throw new IllegalArgumentException("Unknown sorted index: " + index);
+        }
+        List<T> rows = new ArrayList<>();
+        for (List<T> keyRows : sortedIndex.subMap(from, true, to, false).values()) {
+            rows.addAll(keyRows);
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.rows().size();
+    }
+
+    @Override
+    public synchronized void reload() {
+        long version = writeVersion.get();
+        snapshot = buildSnapshot(loadRows());
+        loadedVersion = version;
+    }
+
+    @Override
+    public void refresh() {
+        if (loadedVersion != writeVersion.get()) {
+            reload();
+        }
+    }
+
+    @Override
+    public void close() {
+        table.removeWriteListener(writeListener);
+    }
+
+    private void onWrite() {
+        writeVersion.incrementAndGet();
+        scheduleReload();
+    }
+
+    private void scheduleReload() {
+        if (!reloadScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            table.getDatabase().getScheduler().schedule(this::reloadInBackground, RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            reloadScheduled.set(false);
+        }
+    }
+
+    private void reloadInBackground() {
+        reloadScheduled.set(false);
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to reload mirror of " + table.getName(), e);
+        }
+    }
+
+    private List<T> loadRows() {
+        String sql = table.selectAll().getSql();
+        List<T> rows = new ArrayList<>();
+        // a transaction reads through the primary connection, replicas may not have the write yet
+        table.getDatabase().inTransaction(transaction -> rows.addAll(transaction.createStatement(sql).fetchAll(mapper)));
+        return Collections.unmodifiableList(rows);
+    }
+
+    private void checkIndexName(String name) {
+        if (hashIndexes.containsKey(name) || sortedIndexes.containsKey(name)) {
+            throw new IllegalArgumentException("Index already exists: " + name);
+        }
+    }
+
+    private Snapshot<T> buildSnapshot(List<T> rows) {
+        Map<String, Map<Object, List<T>>> hashSnapshots = new HashMap<>();
+        for (Map.Entry<String, Function<T, ?>> index : hashIndexes.entrySet()) {
+            hashSnapshots.put(index.getKey(), indexRows(rows, index.getValue(), new HashMap<>()));
+        }
+        Map<String, NavigableMap<Object, List<T>>> sortedSnapshots = new HashMap<>();
+        for (Map.Entry<String, Function<T, ? extends Comparable<?>>> index : sortedIndexes.entrySet()) {
+            sortedSnapshots.put(index.getKey(), indexRows(rows, index.getValue(), new TreeMap<>()));
+        }
+        return new Snapshot<>(rows, hashSnapshots, sortedSnapshots);
+    }
+
+    private static <T, M extends Map<Object, List<T>>> M indexRows(List<T> rows, Function<T, ?> key, M index) {
+        for (T row : rows) {
+            Object rowKey = key.apply(row);
+            if (rowKey != null) {
+                index.computeIfAbsent(rowKey, k -> new ArrayList<>(1)).add(row);
+            }
+        }
+        index.replaceAll((rowKey, keyRows) -> Collections.unmodifiableList(keyRows));
+        return index;
+    }
+
+    private record Snapshot<T>(List<T> rows, Map<String, Map<Object, List<T>>> hashIndexes,
+                               Map<String, NavigableMap<Object, List<T>>> sortedIndexes) {}
+
+}
@@ -0,0 +1,266 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.logging.*;
+
+public class GenericWriteBehindWriter implements WriteBehindWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(GenericWriteBehindWriter.class.getName());
+
+    /**
+     * Number of failed flushes after which a row is retried alone, and given up on if it fails again.
+     */
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final GenericDataTable table;
+    private final Database database;
+    private final String insertSql;
+    private final int columns;
+    private final List<String> columnList;
+    private final int batchRows;
+    private final int capacity;
+    private final BackpressurePolicy policy;
+    private final BlockingQueue<Object[]> queue;
+    private final Deque<FailedRow> failedRows = new ArrayDeque<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final LongAdder droppedRows = new LongAdder();
+    private final LongAdder deadLetterRows = new LongAdder();
+    private final ScheduledFuture<?> periodicFlush;
+    private final Runnable removeCloseHook;
+    private volatile Consumer<List<Object[]>> deadLetterHandler;
+    private volatile boolean closed = false;
+
+    public GenericWriteBehindWriter(GenericDataTable table, int batchRows, long flushIntervalMillis, int capacity,
+                                    BackpressurePolicy policy, String... columns) {
+        if (batchRows <= 0 || capacity <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Batch size, capacity and flush interval must be positive");
+        }
+        this.table = table;
+        this.database = table.getDatabase();
+        this.insertSql = table.insertInto(columns).getSql();
+        this.columns = columns.length;
+        this.columnList = List.of(columns);
+        this.batchRows = batchRows;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.deadLetterHandler = rows -> LOGGER.warning("Gave up inserting " + rows.size() + " buffered rows into " + table.getName());
+        this.periodicFlush = database.getScheduler().scheduleWithFixedDelay(this::scheduleFlush,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        this.removeCloseHook = database.addCloseHook(this::close);
+    }
+
+    @Override
+    public boolean write(Object... values) {
+        if (values.length != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " values but got " + values.length);
+        }
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        // callers commonly reuse one row array for every write
+        Object[] row = values.clone();
+        if (!queue.offer(row)) {
+            switch (policy) {
+                case DROP -> {
+                    droppedRows.increment();
+                    return false;
+                }
+                case BLOCK -> {
+                    try {
+                        queue.put(row);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Interrupted while waiting for room in the write queue");
+                    }
+                }
+                case CALLER_RUNS -> {
+                    while (!queue.offer(row)) {
+                        flush();
+                    }
+                }
+            }
+        }
+        // close() may have drained the queue for the last time while this row was being queued
+        if (closed && queue.remove(row)) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        if (queue.size() >= batchRows) {
+            scheduleFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Runs a flush on the database executor, keeping slow inserts off the scheduler thread shared with the other
+     * background tasks of the database. Requests made while a flush is pending share it.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            database.getExecutor().execute(this::flushInBackground);
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        RuntimeException failure = null;
+        int retries = failedRows.size();
+        while (retries > 0) {
+            List<FailedRow> rows = new ArrayList<>(Math.min(retries, batchRows));
+            while (rows.size() < batchRows && retries > 0) {
+                rows.add(failedRows.poll());
+                retries--;
+            }
+            try {
+                insert(rows.stream().map(FailedRow::values).toList());
+            } catch (RuntimeException e) {
+                failure = e;
+                retryLater(rows);
+                break;
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(batchRows);
+        while (queue.drainTo(rows, batchRows) > 0) {
+            try {
+                insert(rows);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                retryLater(rows.stream().map(values -> new FailedRow(values, 0)).toList());
+                break;
+            }
+            rows.clear();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public int getPendingRows() {
+        synchronized (this) {
+            return queue.size() + failedRows.size();
+        }
+    }
+
+    @Override
+    public long getDroppedRows() {
+        return droppedRows.sum();
+    }
+
+    @Override
+    public void onDeadLetter(Consumer<List<Object[]>> handler) {
+        this.deadLetterHandler = Objects.requireNonNull(handler);
+    }
+
+    @Override
+    public long getDeadLetterRows() {
+        return deadLetterRows.sum();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        periodicFlush.cancel(false);
+        removeCloseHook.run();
+        synchronized (this) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to flush buffered writes on close", e);
+            }
+            if (!failedRows.isEmpty()) {
+                List<Object[]> remaining = failedRows.stream().map(FailedRow::values).toList();
+                failedRows.clear();
+                deadLetter(remaining);
+            }
+        }
+    }
+
+    private void insert(List<Object[]> rows) {
+        database.inTransaction(transaction -> {
+            DatabaseStatement statement = transaction.createStatement(insertSql);
+            for (Object[] row : rows) {
+                for (Object value : row) {
+                    if (value == null) {
+                        statement.withNullParameter();
+                    } else {
+                        statement.withParameter(value);
+                    }
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        });
+        table.notifyInserted(columnList, () -> {
+            List<Object> values = new ArrayList<>(rows.size() * columns);
+            for (Object[] row : rows) {
+                values.addAll(Arrays.asList(row));
+            }
+            return values;
+        });
+        table.notifyWrite();
+    }
+
+    /**
+     * Counts a failed attempt for each row and keeps it for a later flush. Rows out of attempts are inserted
+     * one at a time, so only the rows that fail alone are given up on.
+     */
+    private void retryLater(List<FailedRow> rows) {
+        List<Object[]> deadRows = new ArrayList<>();
+        for (FailedRow row : rows) {
+            FailedRow retry = new FailedRow(row.values(), row.attempts() + 1);
+            if (retry.attempts() < MAX_ATTEMPTS) {
+                failedRows.add(retry);
+                continue;
+            }
+            try {
+                insert(Collections.singletonList(retry.values()));
+            } catch (RuntimeException e) {
+                deadRows.add(retry.values());
+            }
+        }
+        while (failedRows.size() > capacity) {
+            deadRows.add(failedRows.poll().values());
+        }
+        if (!deadRows.isEmpty()) {
+            deadLetter(deadRows);
+        }
+    }
+
+    private void deadLetter(List<Object[]> rows) {
+        deadLetterRows.add(rows.size());
+        try {
+            deadLetterHandler.accept(rows);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Dead letter handler of " + table.getName() + " failed", e);
+        }
+    }
+
+    private void flushInBackground() {
+        flushScheduled.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to flush buffered writes, rows will be retried", e);
+        }
+    }
+
+    private record FailedRow(Object[] values, int attempts) {
+    }
+
+}
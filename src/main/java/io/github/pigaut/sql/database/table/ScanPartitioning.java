@@ -0,0 +1,17 @@
+package io.github.pigaut.sql.database.table;
+
+public enum ScanPartitioning {
+
+    /**
+     * Splits the range between the smallest and largest key into ranges of equal width, with one query.
+     * Only used for integer keys, other keys are sampled. Best for keys without large gaps, such as auto increments.
+     */
+    MIN_MAX,
+
+    /**
+     * Splits the keys into ranges with the same number of rows, looking up one key per boundary.
+     * Works for keys of any type and for unevenly spread keys, at the cost of a count and one query per boundary.
+     */
+    SAMPLED
+
+}
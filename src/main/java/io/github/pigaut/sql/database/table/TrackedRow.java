@@ -0,0 +1,164 @@
+package io.github.pigaut.sql.database.table;
+
+import io.github.pigaut.sql.database.statement.*;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Row loaded from a table that records which columns were changed since it was loaded or last saved,
+ * so saving it with {@link io.github.pigaut.sql.DataTable#update(String, Collection)} only writes those columns.
+ * Column labels are resolved once per result set and looked up ignoring case. Not thread safe.
+ *
+ * <pre>
+ * {@code
+ * TrackedRow row = dataTable.select("WHERE id = ?").withParameter(1).fetchOne(TrackedRow.mapper()).orElseThrow();
+ * row.set("coins", 100L);
+ * dataTable.update("id", row);
+ * // SQL: "UPDATE table_name SET coins = ? WHERE id = ?;"
+ * }
+ * </pre>
+ */
+public final class TrackedRow {
+
+    private static final RowMapper<TrackedRow> MAPPER = new RowMapper<>() {
+        @Override
+        public TrackedRow map(ResultSet results) throws SQLException {
+            return forResults(results).map(results);
+        }
+
+        @Override
+        public RowMapper<TrackedRow> forResults(ResultSet results) throws SQLException {
+            Columns columns = Columns.of(results.getMetaData());
+            return row -> new TrackedRow(columns, row);
+        }
+    };
+
+    private final Columns columns;
+    private final Object[] values;
+    private final Object[] savedValues;
+    private final BitSet changed;
+
+    private TrackedRow(Columns columns, ResultSet results) throws SQLException {
+        this.columns = columns;
+        this.values = new Object[columns.names().length];
+        this.changed = new BitSet(values.length);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = results.getObject(i + 1);
+        }
+        this.savedValues = values.clone();
+    }
+
+    /**
+     * Gets the mapper that loads rows as TrackedRow objects.
+     *
+     * @return the shared TrackedRow mapper.
+     */
+    public static RowMapper<TrackedRow> mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Gets the labels of the columns of this row, in the order they were selected.
+     */
+    public List<String> getColumns() {
+        return List.of(columns.names());
+    }
+
+    /**
+     * Gets the current value of a column.
+     *
+     * @param column the column label.
+     * @return the value, null for SQL NULL.
+     */
+    public Object get(String column) {
+        return values[columns.indexOf(column)];
+    }
+
+    /**
+     * Gets the value of a column as it was loaded or last saved, which still identifies the row in the database
+     * when a key column has been changed.
+     *
+     * @param column the column label.
+     * @return the saved value, null for SQL NULL.
+     */
+    public Object getSaved(String column) {
+        return savedValues[columns.indexOf(column)];
+    }
+
+    /**
+     * Sets the value of a column, marking it as changed unless the value is equal to the saved one.
+     *
+     * @param column the column label.
+     * @param value  the new value.
+     * @return this row.
+     */
+    public TrackedRow set(String column, Object value) {
+        int index = columns.indexOf(column);
+        values[index] = value;
+        if (Objects.deepEquals(savedValues[index], value)) {
+            changed.clear(index);
+        } else {
+            changed.set(index);
+        }
+        return this;
+    }
+
+    /**
+     * Checks whether any column changed since the row was loaded or last saved.
+     */
+    public boolean isChanged() {
+        return !changed.isEmpty();
+    }
+
+    /**
+     * Gets the labels of the columns changed since the row was loaded or last saved, in column order.
+     */
+    public List<String> getChangedColumns() {
+        List<String> changedColumns = new ArrayList<>(changed.cardinality());
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            changedColumns.add(columns.names()[i]);
+        }
+        return changedColumns;
+    }
+
+    /**
+     * Forgets every change, as after a successful save.
+     */
+    public void markClean() {
+        System.arraycopy(values, 0, savedValues, 0, values.length);
+        changed.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "TrackedRow{", "}");
+        for (int i = 0; i < values.length; i++) {
+            joiner.add(columns.names()[i] + "=" + values[i] + (changed.get(i) ? "*" : ""));
+        }
+        return joiner.toString();
+    }
+
+    private record Columns(String[] names, Map<String, Integer> indexes) {
+
+        private static Columns of(ResultSetMetaData metaData) throws SQLException {
+            String[] names = new String[metaData.getColumnCount()];
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                names[i] = metaData.getColumnLabel(i + 1);
+                indexes.putIfAbsent(names[i].toLowerCase(Locale.ROOT), i);
+            }
+            return new Columns(names, indexes);
+        }
+
+        private int indexOf(String column) {
+            Integer index = indexes.get(column.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+            return index;
+        }
+
+    }
+
+}
@@ -0,0 +1,15 @@
+package io.github.pigaut.sql.database.table;
+
+public enum WriteMode {
+
+    /**
+     * Writes an entity as soon as it is modified, on the modifying thread.
+     */
+    WRITE_THROUGH,
+
+    /**
+     * Marks modified entities as dirty and writes them in batches on the database scheduler.
+     */
+    WRITE_BEHIND
+
+}
@@ -0,0 +1,189 @@
+package io.github.pigaut.sql.database.transaction;
+
+import io.github.pigaut.sql.*;
+import io.github.pigaut.sql.database.*;
+import io.github.pigaut.sql.database.statement.*;
+
+import javax.sql.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class DatabaseTransaction extends AbstractDatabase implements Transaction {
+
+    private final Database parent;
+    private final Connection connection;
+    private final List<Runnable> afterCommitTasks = new CopyOnWriteArrayList<>();
+
+    public DatabaseTransaction(Database parent, Connection connection) {
+        super(parent.getName());
+        this.parent = parent;
+        this.connection = connection;
+    }
+
+    @Override
+    public Database getParent() {
+        return parent;
+    }
+
+    @Override
+    public DataSource getDataSource() {
+        return parent.getDataSource();
+    }
+
+    /**
+     * Gets an executor running tasks on the calling thread. Every statement of a transaction shares its pinned
+     * connection, which goes back to the pool once the transaction ends, so asynchronous calls made inside
+     * a transaction run before they return and their futures are already completed.
+     */
+    @Override
+    public Executor getExecutor() {
+        return Runnable::run;
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        parent.setExecutor(executor);
+    }
+
+    @Override
+    public ScheduledExecutorService getScheduler() {
+        return parent.getScheduler();
+    }
+
+    @Override
+    public Runnable addCloseHook(Runnable hook) {
+        return parent.addCloseHook(hook);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void releaseConnection(Connection connection) {
+        // the connection stays pinned until the transaction ends
+    }
+
+    @Override
+    public StatementCache getStatementCache() {
+        return parent.getStatementCache();
+    }
+
+    @Override
+    public ReadCoalescer getReadCoalescer() {
+        return parent.getReadCoalescer();
+    }
+
+    @Override
+    public void inTransaction(TransactionAction action) {
+        joinTransaction(action);
+    }
+
+    @Override
+    public void inTransaction(int isolationLevel, TransactionAction action) {
+        checkIsolation(isolationLevel);
+        joinTransaction(action);
+    }
+
+    @Override
+    public CompletableFuture<Void> inTransactionAsync(TransactionAction action) {
+        return CompletableFuture.runAsync(() -> joinTransaction(action), getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Void> inTransactionAsync(int isolationLevel, TransactionAction action) {
+        return CompletableFuture.runAsync(() -> {
+            checkIsolation(isolationLevel);
+            joinTransaction(action);
+        }, getExecutor());
+    }
+
+    /**
+     * Rejects nested transactions asking for another isolation level, which cannot change once a transaction started.
+     */
+    private void checkIsolation(int isolationLevel) {
+        try {
+            if (connection.getTransactionIsolation() != isolationLevel) {
+                throw new IllegalStateException("Cannot change the isolation level of a transaction in progress");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private void joinTransaction(TransactionAction action) {
+        try {
+            action.run(this);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Savepoint setSavepoint() {
+        try {
+            return connection.setSavepoint();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) {
+        try {
+            return connection.setSavepoint(name);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) {
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterCommit(Runnable task) {
+        afterCommitTasks.add(task);
+    }
+
+    /**
+     * Runs the tasks registered with {@link #afterCommit(Runnable)}, called once the connection has been committed.
+     */
+    public void committed() {
+        for (Runnable task : afterCommitTasks) {
+            task.run();
+        }
+        afterCommitTasks.clear();
+    }
+
+    @Override
+    public void closeConnection() {
+        throw new UnsupportedOperationException("Cannot close the connection of a transaction in progress");
+    }
+
+}
@@ -0,0 +1,12 @@
+package io.github.pigaut.sql.database.transaction;
+
+import io.github.pigaut.sql.*;
+
+import java.sql.*;
+
+@FunctionalInterface
+public interface TransactionAction {
+
+    void run(Transaction transaction) throws SQLException;
+
+}